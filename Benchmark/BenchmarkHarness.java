@@ -0,0 +1,163 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * BenchmarkHarness - A small, dependency-free microbenchmark runner.
+ *
+ * Each benchmark is a Workload that is set up once per iteration (untimed) and then driven by
+ * one or more threads for a fixed wall-clock period. Only the time spent inside Workload.run is
+ * measured, so per-operation preparation (Workload.prepare) does not distort the result.
+ *
+ * Results are reported per (benchmark, board size, thread count) as the mean time per operation
+ * and the aggregate throughput across threads, averaged over the measurement iterations after
+ * the warmup iterations have been discarded.
+ */
+public class BenchmarkHarness {
+
+    /**
+     * One benchmarked operation.
+     */
+    public interface Workload {
+
+        /**
+         * Builds the state for one iteration. Not timed.
+         *
+         * @param size Board size parameter (number of notes).
+         */
+        void setup(int size) throws Exception;
+
+        /**
+         * Prepares state before a single operation. Not timed.
+         *
+         * @param thread Index of the calling thread.
+         * @return false if the workload has no more operations this iteration.
+         */
+        default boolean prepare(int thread) throws Exception {
+            return true;
+        }
+
+        /**
+         * Runs a single timed operation.
+         *
+         * @param thread Index of the calling thread.
+         * @return Any value derived from the operation, consumed so the JIT cannot discard the work.
+         */
+        long run(int thread) throws Exception;
+    }
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationMillis;
+    private volatile long sink; // Consumes results so operations are never dead code.
+
+    /**
+     * Creates a new BenchmarkHarness.
+     *
+     * @param warmupIterations Iterations run and discarded before measuring.
+     * @param measurementIterations Iterations averaged into the result.
+     * @param iterationMillis Wall-clock length of each iteration.
+     */
+    public BenchmarkHarness(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationMillis = iterationMillis;
+    }
+
+    /**
+     * Prints the result table header.
+     */
+    public static void printHeader() {
+        System.out.println(String.format("%-28s %10s %8s %14s %14s %10s",
+                "Benchmark", "Size", "Threads", "ns/op", "ops/s", "ops"));
+        System.out.println("-".repeat(89));
+    }
+
+    /**
+     * Runs one benchmark configuration and prints its result line.
+     *
+     * @param name Benchmark name.
+     * @param workload The workload.
+     * @param size Board size parameter.
+     * @param threads Number of concurrent threads.
+     */
+    public void run(String name, Workload workload, int size, int threads) throws Exception {
+        double totalNanosPerOp = 0;
+        double totalOpsPerSecond = 0;
+        long totalOps = 0;
+
+        for (int iteration = 0; iteration < warmupIterations + measurementIterations; iteration++) {
+            workload.setup(size);
+            long[][] results = runIteration(workload, threads); // per thread: {ops, nanos}
+
+            if (iteration < warmupIterations) {
+                continue;
+            }
+
+            long ops = 0;
+            long nanos = 0;
+            double opsPerSecond = 0;
+            for (long[] result : results) {
+                ops += result[0];
+                nanos += result[1];
+                if (result[1] > 0) {
+                    opsPerSecond += result[0] * 1e9 / result[1];
+                }
+            }
+            totalNanosPerOp += ops == 0 ? 0 : (double) nanos / ops;
+            totalOpsPerSecond += opsPerSecond;
+            totalOps += ops;
+        }
+
+        System.out.println(String.format("%-28s %10d %8d %14.1f %14.0f %10d",
+                name, size, threads,
+                totalNanosPerOp / measurementIterations,
+                totalOpsPerSecond / measurementIterations,
+                totalOps));
+    }
+
+    /**
+     * Drives the workload from all threads until the iteration time elapses.
+     */
+    private long[][] runIteration(Workload workload, int threads) throws Exception {
+        long[][] results = new long[threads][2];
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                long deadline = System.nanoTime() + iterationMillis * 1_000_000L;
+                long ops = 0;
+                long nanos = 0;
+                long local = 0;
+                while (System.nanoTime() < deadline && workload.prepare(thread)) {
+                    long begin = System.nanoTime();
+                    local += workload.run(thread);
+                    nanos += System.nanoTime() - begin;
+                    ops++;
+                }
+                results[thread][0] = ops;
+                results[thread][1] = nanos;
+                sink += local;
+                return null;
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new Exception("Benchmark failed: " + e.getCause(), e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        return results;
+    }
+
+    public long getSink() {
+        return sink;
+    }
+}
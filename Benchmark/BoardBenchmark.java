@@ -0,0 +1,597 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Board Benchmark
+ *
+ * Microbenchmarks for the BoardState operations, note formatting and the ProtocolClient response
+ * parsers, parameterized by board size (number of notes) and thread count.
+ *
+ * The parallelQuery benchmarks run the same GET scans as queryNotes split across a fork-join pool;
+ * comparing the two at each size shows the note count at which --parallel-query pays off.
+ *
+ * The scan benchmarks time one containment or colour pass over every note: as a loop over Note
+ * objects, and with each ScanKernel over primitive columns. The vector ones only run when the
+ * vector kernel is compiled and the JVM is started with --add-modules jdk.incubator.vector.
+ *
+ * The deflate and inflate benchmarks compress the text of a full GET response the way COMPRESS
+ * DEFLATE does, at the level the server uses and at the JDK default, for the CPU side of the
+ * bandwidth trade-off.
+ *
+ * Usage (from the Benchmark directory):
+ *   javac -encoding UTF-8 -d out ../Server/*.java ../Client/*.java *.java
+ *   java -cp out BoardBenchmark [--sizes 1000,10000,100000] [--threads 1,4] [--warmup 2] [--iterations 3]
+ *                               [--time <ms per iteration>] [--filter <benchmark name substring>]
+ *                               [--store object|columnar]
+ */
+public class BoardBenchmark {
+    private static final int NOTE_WIDTH = 20;
+    private static final int NOTE_HEIGHT = 10;
+    private static final String[] COLOURS = {"red", "white", "green", "yellow"};
+    private static final int TOPICS = 100;
+    private static final ForkJoinPool QUERY_POOL = new ForkJoinPool();
+
+    private static final ScanKernel SCALAR_KERNEL = new ScalarScanKernel();
+    private static final ScanKernel VECTOR_KERNEL = loadVectorKernel();
+
+    private static boolean columnarStore;
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = {1_000, 10_000, 100_000};
+        int[] threadCounts = {1, 4};
+        int warmup = 2;
+        int iterations = 3;
+        long timeMillis = 1000;
+        String filter = "";
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = parseList(args[i + 1]);
+                    break;
+                case "--threads":
+                    threadCounts = parseList(args[i + 1]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--iterations":
+                    iterations = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--time":
+                    timeMillis = Long.parseLong(args[i + 1]);
+                    break;
+                case "--filter":
+                    filter = args[i + 1];
+                    break;
+                case "--store":
+                    columnarStore = args[i + 1].equals("columnar");
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        BenchmarkHarness harness = new BenchmarkHarness(warmup, iterations, timeMillis);
+        Map<String, BenchmarkHarness.Workload> workloads = createWorkloads();
+        Set<String> singleThreaded = new HashSet<>(Collections.singletonList("shake"));
+
+        BenchmarkHarness.printHeader();
+        for (Map.Entry<String, BenchmarkHarness.Workload> entry : workloads.entrySet()) {
+            if (!entry.getKey().contains(filter)) {
+                continue;
+            }
+            for (int size : sizes) {
+                for (int threads : threadCounts) {
+                    if (threads > 1 && singleThreaded.contains(entry.getKey())) {
+                        continue;
+                    }
+                    harness.run(entry.getKey(), entry.getValue(), size, threads);
+                }
+            }
+        }
+        System.out.println("(sink " + harness.getSink() + ")");
+    }
+
+    /**
+     * Creates every benchmark, in reporting order.
+     */
+    private static Map<String, BenchmarkHarness.Workload> createWorkloads() {
+        Map<String, BenchmarkHarness.Workload> workloads = new LinkedHashMap<>();
+
+        workloads.put("postNote", new BoardWorkload() {
+            private final AtomicInteger next = new AtomicInteger();
+
+            @Override
+            public void setup(int size) {
+                super.setup(size);
+                next.set(0);
+            }
+
+            @Override
+            public boolean prepare(int thread) {
+                return next.get() < spareSlots;
+            }
+
+            @Override
+            public long run(int thread) {
+                int slot = next.getAndIncrement();
+                if (slot >= spareSlots) {
+                    return 0;
+                }
+                int[] corner = spareCorner(slot);
+                return board.postNote(corner[0], corner[1], COLOURS[slot % COLOURS.length], message(slot));
+            }
+        });
+
+        workloads.put("placePin", new BoardWorkload() {
+            @Override
+            public long run(int thread) {
+                int[] corner = corner(ThreadLocalRandom.current().nextInt(size));
+                board.placePin(corner[0] + 1, corner[1] + 1);
+                return 1;
+            }
+        });
+
+        workloads.put("removePin", new BoardWorkload() {
+            private final AtomicInteger next = new AtomicInteger();
+
+            @Override
+            public void setup(int size) {
+                super.setup(size);
+                pinEvery(board, size, 1);
+                next.set(0);
+            }
+
+            @Override
+            public boolean prepare(int thread) {
+                return next.get() < size;
+            }
+
+            @Override
+            public long run(int thread) {
+                int index = next.getAndIncrement();
+                if (index >= size) {
+                    return 0;
+                }
+                int[] corner = corner(index);
+                board.removePin(corner[0] + 1, corner[1] + 1);
+                return 1;
+            }
+        });
+
+        workloads.put("shake", new BoardWorkload() {
+            private BoardSnapshot tenPercentPinned;
+            private boolean shaken;
+
+            @Override
+            public void setup(int size) {
+                super.setup(size);
+                pinEvery(board, size, 10);
+                tenPercentPinned = board.snapshot();
+                shaken = false;
+            }
+
+            @Override
+            public boolean prepare(int thread) {
+                // Restore the unpinned notes removed by the previous SHAKE.
+                if (shaken) {
+                    board.loadSnapshot(tenPercentPinned);
+                }
+                return true;
+            }
+
+            @Override
+            public long run(int thread) {
+                board.shake();
+                shaken = true;
+                return 1;
+            }
+        });
+
+        workloads.put("queryNotes(all)", new BoardWorkload() {
+            @Override
+            public long run(int thread) {
+                return board.queryNotes(null, -1, -1, null).size();
+            }
+        });
+
+        workloads.put("queryNotes(colour)", new BoardWorkload() {
+            @Override
+            public long run(int thread) {
+                return board.queryNotes("green", -1, -1, null).size();
+            }
+        });
+
+        workloads.put("queryNotes(contains)", new BoardWorkload() {
+            @Override
+            public long run(int thread) {
+                int[] corner = corner(ThreadLocalRandom.current().nextInt(size));
+                return board.queryNotes(null, corner[0] + 1, corner[1] + 1, null).size();
+            }
+        });
+
+        workloads.put("queryNotes(region)", new BoardWorkload() {
+            @Override
+            public long run(int thread) {
+                // A viewport ten notes across and ten down, half a note off the grid.
+                int[] corner = corner(ThreadLocalRandom.current().nextInt(size));
+                int x = corner[0] + NOTE_WIDTH / 2;
+                int y = corner[1] + NOTE_HEIGHT / 2;
+                return board.queryNotes(null, -1, -1, null,
+                        new int[]{x, y, x + 10 * NOTE_WIDTH - 1, y + 10 * NOTE_HEIGHT - 1}).size();
+            }
+        });
+
+        workloads.put("nearestNotes(k=10)", new BoardWorkload() {
+            @Override
+            public long run(int thread) {
+                int[] corner = corner(ThreadLocalRandom.current().nextInt(size));
+                return board.nearestNotes(corner[0] + NOTE_WIDTH / 2, corner[1] + NOTE_HEIGHT / 2, 10, null).size();
+            }
+        });
+
+        workloads.put("nearestNotes(k=10, colour)", new BoardWorkload() {
+            @Override
+            public long run(int thread) {
+                int[] corner = corner(ThreadLocalRandom.current().nextInt(size));
+                return board.nearestNotes(corner[0] + NOTE_WIDTH / 2, corner[1] + NOTE_HEIGHT / 2, 10, "green").size();
+            }
+        });
+
+        workloads.put("queryNotes(refersTo)", new BoardWorkload() {
+            @Override
+            public long run(int thread) {
+                return board.queryNotes(null, -1, -1, "topic7 ").size();
+            }
+        });
+
+        workloads.put("queryNotes(combined)", new BoardWorkload() {
+            @Override
+            public long run(int thread) {
+                int[] corner = corner(ThreadLocalRandom.current().nextInt(size));
+                return board.queryNotes("red", corner[0] + 1, corner[1] + 1, "topic").size();
+            }
+        });
+
+        workloads.put("parallelQuery(all)", new ParallelQueryWorkload() {
+            @Override
+            public long run(int thread) {
+                return board.queryNotes(null, -1, -1, null).size();
+            }
+        });
+
+        workloads.put("parallelQuery(colour)", new ParallelQueryWorkload() {
+            @Override
+            public long run(int thread) {
+                return board.queryNotes("green", -1, -1, null).size();
+            }
+        });
+
+        workloads.put("parallelQuery(contains)", new ParallelQueryWorkload() {
+            @Override
+            public long run(int thread) {
+                int[] corner = corner(ThreadLocalRandom.current().nextInt(size));
+                return board.queryNotes(null, corner[0] + 1, corner[1] + 1, null).size();
+            }
+        });
+
+        workloads.put("parallelQuery(refersTo)", new ParallelQueryWorkload() {
+            @Override
+            public long run(int thread) {
+                return board.queryNotes(null, -1, -1, "topic7 ").size();
+            }
+        });
+
+        workloads.put("scan(contains) Note objects", new ScanWorkload() {
+            @Override
+            public long run(int thread) {
+                int[] corner = corner(ThreadLocalRandom.current().nextInt(size));
+                long count = 0;
+                for (Note note : notes) {
+                    if (note.contains(corner[0] + 1, corner[1] + 1, NOTE_WIDTH, NOTE_HEIGHT)) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+        });
+
+        workloads.put("scan(contains) scalar kernel", new ScanWorkload() {
+            @Override
+            public long run(int thread) {
+                int[] corner = corner(ThreadLocalRandom.current().nextInt(size));
+                return SCALAR_KERNEL.selectContaining(xs, ys, 0, size, corner[0] + 1, corner[1] + 1,
+                        NOTE_WIDTH, NOTE_HEIGHT, selected.get());
+            }
+        });
+
+        workloads.put("scan(colour) Note objects", new ScanWorkload() {
+            @Override
+            public long run(int thread) {
+                long count = 0;
+                for (Note note : notes) {
+                    if (note.getColour().equals("green")) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+        });
+
+        workloads.put("scan(colour) scalar kernel", new ScanWorkload() {
+            @Override
+            public long run(int thread) {
+                return SCALAR_KERNEL.selectColour(colours, 0, size, GREEN, selected.get());
+            }
+        });
+
+        if (VECTOR_KERNEL != null) {
+            workloads.put("scan(contains) vector kernel", new ScanWorkload() {
+                @Override
+                public long run(int thread) {
+                    int[] corner = corner(ThreadLocalRandom.current().nextInt(size));
+                    return VECTOR_KERNEL.selectContaining(xs, ys, 0, size, corner[0] + 1, corner[1] + 1,
+                            NOTE_WIDTH, NOTE_HEIGHT, selected.get());
+                }
+            });
+
+            workloads.put("scan(colour) vector kernel", new ScanWorkload() {
+                @Override
+                public long run(int thread) {
+                    return VECTOR_KERNEL.selectColour(colours, 0, size, GREEN, selected.get());
+                }
+            });
+        }
+
+        workloads.put("deflate(GET all) level 1", new CompressionWorkload(Deflater.BEST_SPEED));
+        workloads.put("deflate(GET all) level 6", new CompressionWorkload(Deflater.DEFAULT_COMPRESSION));
+
+        workloads.put("inflate(GET all)", new CompressionWorkload(Deflater.BEST_SPEED) {
+            private final Inflater inflater = new Inflater(true);
+            private byte[] compressed;
+            private byte[] output;
+
+            @Override
+            public void setup(int size) {
+                super.setup(size);
+                compressed = Arrays.copyOf(buffer, deflate());
+                output = new byte[raw.length];
+            }
+
+            @Override
+            public long run(int thread) throws Exception {
+                synchronized (inflater) {
+                    inflater.reset();
+                    inflater.setInput(compressed);
+                    return inflater.inflate(output);
+                }
+            }
+        });
+
+        workloads.put("Note.toProtocolString", new BoardWorkload() {
+            private List<Note> notes;
+
+            @Override
+            public void setup(int size) {
+                super.setup(size);
+                notes = board.queryNotes(null, -1, -1, null);
+            }
+
+            @Override
+            public long run(int thread) {
+                return notes.get(ThreadLocalRandom.current().nextInt(notes.size())).toProtocolString().length();
+            }
+        });
+
+        workloads.put("ProtocolClient.parseNotes", new BoardWorkload() {
+            private String payload;
+            private String firstLine;
+
+            @Override
+            public void setup(int size) {
+                super.setup(size);
+                List<Note> notes = board.queryNotes(null, -1, -1, null);
+                StringBuilder sb = new StringBuilder();
+                for (Note note : notes) {
+                    sb.append(note.toProtocolString()).append("\n");
+                }
+                sb.append("END\n");
+                firstLine = "OK " + notes.size();
+                payload = sb.toString();
+            }
+
+            @Override
+            public long run(int thread) throws IOException {
+                ProtocolClient client = new ProtocolClient();
+                client.attach(new BufferedReader(new StringReader(payload)), null);
+                return ((NotesListResponse) client.parseResponse(firstLine, "GET")).notes.size();
+            }
+        });
+
+        workloads.put("ProtocolClient.parseHello", new BenchmarkHarness.Workload() {
+            private final ProtocolClient client = new ProtocolClient();
+
+            @Override
+            public void setup(int size) {
+            }
+
+            @Override
+            public long run(int thread) throws IOException {
+                return client.parseHandshake("HELLO 200 100 20 10 COLOURS 4 red white green yellow").colours.size();
+            }
+        });
+
+        return workloads;
+    }
+
+    /**
+     * Base workload: a board holding `size` non-overlapping notes laid out on a grid,
+     * plus an empty band of spare note positions below them.
+     */
+    private abstract static class BoardWorkload implements BenchmarkHarness.Workload {
+        protected BoardState board;
+        protected int size;
+        protected int columns;
+        protected int rows;
+        protected int spareSlots;
+
+        @Override
+        public void setup(int size) {
+            this.size = size;
+            this.columns = (int) Math.ceil(Math.sqrt(size));
+            this.rows = (size + columns - 1) / columns;
+            int spareRows = Math.max(rows, 100_000 / columns);
+            this.spareSlots = spareRows * columns;
+
+            board = new BoardState(columns * NOTE_WIDTH, (rows + spareRows) * NOTE_HEIGHT,
+                    NOTE_WIDTH, NOTE_HEIGHT, new HashSet<>(Arrays.asList(COLOURS)));
+            if (columnarStore) {
+                board.setNoteStore(new ColumnarNoteStore(NOTE_WIDTH, NOTE_HEIGHT, board.getValidColours(), false,
+                        VECTOR_KERNEL != null ? VECTOR_KERNEL : SCALAR_KERNEL));
+            }
+
+            // Load through a snapshot: posting one by one would cost O(n^2) overlap checks.
+            List<String> mutations = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                int[] corner = corner(i);
+                mutations.add("POST " + (i + 1) + " " + corner[0] + " " + corner[1] + " "
+                        + COLOURS[i % COLOURS.length] + " " + message(i));
+            }
+            board.loadSnapshot(new BoardSnapshot(0, mutations));
+        }
+
+        protected int[] corner(int index) {
+            return new int[]{(index % columns) * NOTE_WIDTH, (index / columns) * NOTE_HEIGHT};
+        }
+
+        protected int[] spareCorner(int slot) {
+            return new int[]{(slot % columns) * NOTE_WIDTH, (rows + slot / columns) * NOTE_HEIGHT};
+        }
+
+        /**
+         * Pins every n-th note through a snapshot, one pin per note.
+         */
+        protected void pinEvery(BoardState target, int count, int n) {
+            List<String> mutations = new ArrayList<>(target.snapshot().getMutations());
+            for (int i = 0; i < count; i += n) {
+                int[] corner = corner(i);
+                mutations.add("PINAT " + (corner[0] + 1) + " " + (corner[1] + 1) + " " + (i + 1));
+            }
+            target.loadSnapshot(new BoardSnapshot(target.getVersion(), mutations));
+        }
+    }
+
+    /**
+     * Board workload whose GETs always scan in parallel on the shared query pool.
+     */
+    private abstract static class ParallelQueryWorkload extends BoardWorkload {
+        @Override
+        public void setup(int size) {
+            super.setup(size);
+            board.setParallelQuery(QUERY_POOL, 1);
+        }
+    }
+
+    /**
+     * Board workload that also copies its notes into the columns a ScanKernel scans, with each
+     * thread selecting into its own output array.
+     */
+    private abstract static class ScanWorkload extends BoardWorkload {
+        protected static final short GREEN = 2; // Ordinal of "green" in COLOURS.
+
+        protected List<Note> notes;
+        protected int[] xs;
+        protected int[] ys;
+        protected short[] colours;
+        protected ThreadLocal<int[]> selected;
+
+        @Override
+        public void setup(int size) {
+            super.setup(size);
+            notes = board.queryNotes(null, -1, -1, null);
+            xs = new int[size];
+            ys = new int[size];
+            colours = new short[size];
+            for (int i = 0; i < size; i++) {
+                Note note = notes.get(i);
+                xs[i] = note.getX();
+                ys[i] = note.getY();
+                colours[i] = (short) Arrays.asList(COLOURS).indexOf(note.getColour());
+            }
+            selected = ThreadLocal.withInitial(() -> new int[size]);
+        }
+    }
+
+    /**
+     * Deflates the text of a full GET response the way ClientConnection does for COMPRESS DEFLATE:
+     * one reused raw Deflater, returning the compressed size. Threads share the Deflater, so run
+     * these with one thread.
+     */
+    private static class CompressionWorkload extends BoardWorkload {
+        private final Deflater deflater;
+        protected byte[] raw;
+        protected byte[] buffer;
+
+        CompressionWorkload(int level) {
+            deflater = new Deflater(level, true);
+        }
+
+        @Override
+        public void setup(int size) {
+            super.setup(size);
+            StringBuilder sb = new StringBuilder();
+            List<Note> notes = board.queryNotes(null, -1, -1, null);
+            sb.append("OK ").append(notes.size()).append(" VERSION ").append(board.getVersion()).append("\n");
+            for (Note note : notes) {
+                sb.append(note.toProtocolString()).append("\n");
+            }
+            sb.append("END");
+            raw = sb.toString().getBytes(StandardCharsets.UTF_8);
+            buffer = new byte[raw.length + 1024];
+        }
+
+        @Override
+        public long run(int thread) throws Exception {
+            synchronized (deflater) {
+                return deflate();
+            }
+        }
+
+        protected int deflate() {
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return length;
+        }
+    }
+
+    private static ScanKernel loadVectorKernel() {
+        ScanKernel kernel = ScanKernel.load("auto");
+        return kernel instanceof ScalarScanKernel ? null : kernel;
+    }
+
+    private static String message(int index) {
+        return "note " + index + " about topic" + (index % TOPICS) + " with some ordinary text";
+    }
+
+    private static int[] parseList(String value) {
+        String[] parts = value.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,457 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.*;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+// Draws the notes and pins of the last GET results at their board coordinates.
+//
+// The canvas is split into square tiles of screen pixels. Each tile knows which notes and pins
+// overlap it, and is rendered once into an image that is kept until something on it changes, so
+// scrolling and repainting only blit images. New results are diffed against the old ones and only
+// the tiles touched by added, removed or changed notes are re-rendered and repainted. Painting
+// only ever looks at the tiles inside the clip, so the cost follows what is visible, not the
+// number of notes on the board.
+public class BoardCanvas extends JComponent {
+    private static final long serialVersionUID = 1L;
+    private static final int TILE_SIZE = 256; // Screen pixels per tile side
+    private static final int MAX_CACHED_TILES = 96; // About 24 MB of tile images
+    private static final double MIN_SCALE = 1.0 / 64;
+    private static final double MAX_SCALE = 16;
+    private static final int PIN_RADIUS = 3;
+    private static final int INCREMENTAL_LIMIT = 8; // Above 1/8 of the notes changed, re-index everything instead
+    private static final Color OFF_BOARD = new Color(0x9E9E9E);
+    private static final Color BOARD = new Color(0xFAF7EF);
+    private static final Map<String, Color> NAMED_COLOURS = new HashMap<>();
+
+    static {
+        NAMED_COLOURS.put("red", new Color(0xEF9A9A));
+        NAMED_COLOURS.put("white", Color.WHITE);
+        NAMED_COLOURS.put("green", new Color(0xA5D6A7));
+        NAMED_COLOURS.put("yellow", new Color(0xFFF59D));
+        NAMED_COLOURS.put("blue", new Color(0x90CAF9));
+        NAMED_COLOURS.put("orange", new Color(0xFFCC80));
+        NAMED_COLOURS.put("pink", new Color(0xF8BBD0));
+        NAMED_COLOURS.put("purple", new Color(0xCE93D8));
+        NAMED_COLOURS.put("grey", new Color(0xE0E0E0));
+        NAMED_COLOURS.put("gray", new Color(0xE0E0E0));
+    }
+
+    private int boardW;
+    private int boardH;
+    private int noteW;
+    private int noteH;
+    private double scale = 1;
+
+    private Map<Integer, NoteRecord> notes = new LinkedHashMap<>(); // By ID, in drawing order
+    private Set<Long> pins = new HashSet<>(); // Packed x,y
+    private final Map<Long, List<NoteRecord>> tileNotes = new HashMap<>(); // Tile key -> notes overlapping it
+    private final Map<Long, List<Long>> tilePins = new HashMap<>(); // Tile key -> pins inside it
+    private int selectedId = -1;
+
+    // Rendered tiles, least recently drawn first
+    private final Map<Long, BufferedImage> tileImages = new LinkedHashMap<Long, BufferedImage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+            return size() > MAX_CACHED_TILES;
+        }
+    };
+
+    public BoardCanvas() {
+        setOpaque(true);
+        setToolTipText(""); // Registers with the tooltip manager; the text comes from getToolTipText(MouseEvent)
+    }
+
+    // Called with board coordinates when the user clicks the canvas
+    public void setPointListener(BiConsumer<Integer, Integer> listener) {
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int x = (int) (e.getX() / scale);
+                int y = (int) (e.getY() / scale);
+                if (x < boardW && y < boardH) {
+                    listener.accept(x, y);
+                }
+            }
+        });
+    }
+
+    // Sets the board geometry from HELLO and drops everything shown so far
+    public void setBoard(Handshake handshake) {
+        boardW = handshake.boardW;
+        boardH = handshake.boardH;
+        noteW = handshake.noteW;
+        noteH = handshake.noteH;
+        notes = new LinkedHashMap<>();
+        pins = new HashSet<>();
+        selectedId = -1;
+        rebuildTiles();
+    }
+
+    public void clearBoard() {
+        boardW = boardH = noteW = noteH = 0;
+        notes = new LinkedHashMap<>();
+        pins = new HashSet<>();
+        selectedId = -1;
+        rebuildTiles();
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public void setScale(double newScale) {
+        newScale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, newScale));
+        if (newScale == scale) {
+            return;
+        }
+        scale = newScale;
+        rebuildTiles();
+    }
+
+    // Scale at which the whole board fits in the given size
+    public double fitScale(Dimension size) {
+        if (boardW == 0 || boardH == 0) {
+            return 1;
+        }
+        return Math.min((double) size.width / boardW, (double) size.height / boardH);
+    }
+
+    // Shows a new GET result, repainting only the tiles whose notes changed
+    public void setNotes(List<NoteRecord> records) {
+        Map<Integer, NoteRecord> next = new LinkedHashMap<>(records.size() * 2);
+        for (NoteRecord note : records) {
+            next.put(note.id, note);
+        }
+
+        List<NoteRecord> gone = new ArrayList<>();
+        List<NoteRecord> added = new ArrayList<>();
+        for (NoteRecord old : notes.values()) {
+            NoteRecord now = next.get(old.id);
+            if (now == null || !sameNote(old, now)) {
+                gone.add(old);
+            }
+        }
+        for (NoteRecord now : next.values()) {
+            NoteRecord old = notes.get(now.id);
+            if (old == null || !sameNote(old, now)) {
+                added.add(now);
+            }
+        }
+        notes = next;
+
+        if (gone.size() + added.size() > Math.max(64, notes.size() / INCREMENTAL_LIMIT)) {
+            rebuildTiles();
+            return;
+        }
+        Set<Long> dirty = new HashSet<>();
+        for (NoteRecord note : gone) {
+            removeFromTiles(note, dirty);
+        }
+        for (NoteRecord note : added) {
+            addToTiles(note, dirty);
+        }
+        invalidate(dirty);
+    }
+
+    // Shows a new GET PINS result, repainting only the tiles whose pins changed
+    public void setPins(List<PinRecord> records) {
+        Set<Long> next = new HashSet<>(records.size() * 2);
+        for (PinRecord pin : records) {
+            next.add(pack(pin.x, pin.y));
+        }
+
+        Set<Long> dirty = new HashSet<>();
+        for (long pin : pins) {
+            if (!next.contains(pin)) {
+                Set<Long> tiles = new HashSet<>();
+                tilesOf(pinRect(pin), tiles);
+                for (long tile : tiles) {
+                    List<Long> list = tilePins.get(tile);
+                    if (list != null) {
+                        list.remove(pin);
+                    }
+                }
+                dirty.addAll(tiles);
+            }
+        }
+        for (long pin : next) {
+            if (!pins.contains(pin)) {
+                addPinToTiles(pin, dirty);
+            }
+        }
+        pins = next;
+        invalidate(dirty);
+    }
+
+    // Highlights a note and scrolls it into view
+    public void select(int id) {
+        Set<Long> dirty = new HashSet<>();
+        NoteRecord old = notes.get(selectedId);
+        if (old != null) {
+            tilesOf(screenRect(old), dirty);
+        }
+        selectedId = id;
+        NoteRecord now = notes.get(id);
+        if (now != null) {
+            tilesOf(screenRect(now), dirty);
+            scrollRectToVisible(screenRect(now));
+        }
+        invalidate(dirty);
+    }
+
+    public int getNoteCount() {
+        return notes.size();
+    }
+
+    // The part of the board in view, as inclusive board coordinates {x1, y1, x2, y2}, or null with no board shown
+    public int[] getVisibleArea() {
+        Rectangle view = getVisibleRect();
+        if (boardW == 0 || boardH == 0 || view.isEmpty()) {
+            return null;
+        }
+        int x1 = (int) (view.x / scale);
+        int y1 = (int) (view.y / scale);
+        int x2 = Math.min(boardW - 1, (int) Math.ceil((view.x + view.width) / scale) - 1);
+        int y2 = Math.min(boardH - 1, (int) Math.ceil((view.y + view.height) / scale) - 1);
+        return x1 <= x2 && y1 <= y2 ? new int[]{x1, y1, x2, y2} : null;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension((int) Math.ceil(boardW * scale), (int) Math.ceil(boardH * scale));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(OFF_BOARD);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        Dimension board = getPreferredSize();
+        int firstX = Math.max(0, clip.x / TILE_SIZE);
+        int firstY = Math.max(0, clip.y / TILE_SIZE);
+        int lastX = Math.min((board.width - 1) / TILE_SIZE, (clip.x + clip.width - 1) / TILE_SIZE);
+        int lastY = Math.min((board.height - 1) / TILE_SIZE, (clip.y + clip.height - 1) / TILE_SIZE);
+        for (int ty = firstY; ty <= lastY; ty++) {
+            for (int tx = firstX; tx <= lastX; tx++) {
+                long key = pack(tx, ty);
+                BufferedImage image = tileImages.get(key);
+                if (image == null) {
+                    image = renderTile(tx, ty);
+                    tileImages.put(key, image);
+                }
+                g.drawImage(image, tx * TILE_SIZE, ty * TILE_SIZE, null);
+            }
+        }
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        NoteRecord note = noteAt(e.getX(), e.getY());
+        if (note == null) {
+            return null;
+        }
+        return "Note " + note.id + " (" + note.x + ", " + note.y + ") " + note.colour + " " + note.pinStatus
+                + (note.message.isEmpty() ? "" : ": " + note.message);
+    }
+
+    // The top-most note under a screen point, looked up through its tile
+    private NoteRecord noteAt(int sx, int sy) {
+        List<NoteRecord> candidates = tileNotes.get(pack(sx / TILE_SIZE, sy / TILE_SIZE));
+        if (candidates == null) {
+            return null;
+        }
+        double bx = sx / scale;
+        double by = sy / scale;
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            NoteRecord note = candidates.get(i);
+            if (bx >= note.x && bx < note.x + noteW && by >= note.y && by < note.y + noteH) {
+                return note;
+            }
+        }
+        return null;
+    }
+
+    private BufferedImage renderTile(int tx, int ty) {
+        BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            int originX = tx * TILE_SIZE;
+            int originY = ty * TILE_SIZE;
+            g.setColor(OFF_BOARD);
+            g.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+            g.setColor(BOARD);
+            g.fillRect(0, 0, (int) Math.ceil(boardW * scale) - originX, (int) Math.ceil(boardH * scale) - originY);
+            g.translate(-originX, -originY);
+
+            List<NoteRecord> tileList = tileNotes.get(pack(tx, ty));
+            if (tileList != null) {
+                boolean labels = noteH * scale >= 14 && noteW * scale >= 24;
+                if (labels) {
+                    g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 11));
+                    g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                }
+                for (NoteRecord note : tileList) {
+                    drawNote(g, note, labels);
+                }
+            }
+
+            List<Long> pinList = tilePins.get(pack(tx, ty));
+            if (pinList != null) {
+                g.setColor(new Color(0xC62828));
+                for (long pin : pinList) {
+                    int px = (int) (unpackX(pin) * scale);
+                    int py = (int) (unpackY(pin) * scale);
+                    g.fillOval(px - PIN_RADIUS, py - PIN_RADIUS, PIN_RADIUS * 2, PIN_RADIUS * 2);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private void drawNote(Graphics2D g, NoteRecord note, boolean labels) {
+        Rectangle r = screenRect(note);
+        g.setColor(colourOf(note.colour));
+        g.fillRect(r.x, r.y, r.width, r.height);
+        if (r.width < 3 || r.height < 3) {
+            return;
+        }
+        boolean selected = note.id == selectedId;
+        g.setColor(selected ? Color.BLUE : note.pinStatus.equals("PINNED") ? Color.DARK_GRAY : Color.LIGHT_GRAY);
+        g.drawRect(r.x, r.y, r.width - 1, r.height - 1);
+        if (selected) {
+            g.drawRect(r.x + 1, r.y + 1, r.width - 3, r.height - 3);
+        }
+        if (labels) {
+            Shape oldClip = g.getClip();
+            g.clipRect(r.x + 2, r.y + 1, r.width - 4, r.height - 2);
+            g.setColor(Color.BLACK);
+            g.drawString(note.id + " " + note.message, r.x + 3, r.y + g.getFontMetrics().getAscent());
+            g.setClip(oldClip);
+        }
+    }
+
+    private Rectangle screenRect(NoteRecord note) {
+        int x0 = (int) Math.floor(note.x * scale);
+        int y0 = (int) Math.floor(note.y * scale);
+        int x1 = (int) Math.ceil((note.x + noteW) * scale);
+        int y1 = (int) Math.ceil((note.y + noteH) * scale);
+        return new Rectangle(x0, y0, Math.max(1, x1 - x0), Math.max(1, y1 - y0));
+    }
+
+    private Rectangle pinRect(long pin) {
+        int px = (int) (unpackX(pin) * scale);
+        int py = (int) (unpackY(pin) * scale);
+        return new Rectangle(px - PIN_RADIUS, py - PIN_RADIUS, PIN_RADIUS * 2 + 1, PIN_RADIUS * 2 + 1);
+    }
+
+    // Re-indexes every note and pin for the current scale and drops all rendered tiles
+    private void rebuildTiles() {
+        tileNotes.clear();
+        tilePins.clear();
+        for (NoteRecord note : notes.values()) {
+            addToTiles(note, null);
+        }
+        for (long pin : pins) {
+            addPinToTiles(pin, null);
+        }
+        tileImages.clear();
+        revalidate();
+        repaint();
+    }
+
+    // Adds a pin to the tiles it overlaps, and those tiles to dirty unless it is null
+    private void addPinToTiles(long pin, Set<Long> dirty) {
+        Rectangle r = pinRect(pin);
+        for (int ty = Math.max(0, r.y) / TILE_SIZE; ty <= (r.y + r.height - 1) / TILE_SIZE; ty++) {
+            for (int tx = Math.max(0, r.x) / TILE_SIZE; tx <= (r.x + r.width - 1) / TILE_SIZE; tx++) {
+                long tile = pack(tx, ty);
+                tilePins.computeIfAbsent(tile, k -> new ArrayList<>()).add(pin);
+                if (dirty != null) {
+                    dirty.add(tile);
+                }
+            }
+        }
+    }
+
+    // Adds a note to the tiles it overlaps, and those tiles to dirty unless it is null
+    private void addToTiles(NoteRecord note, Set<Long> dirty) {
+        Rectangle r = screenRect(note);
+        for (int ty = r.y / TILE_SIZE; ty <= (r.y + r.height - 1) / TILE_SIZE; ty++) {
+            for (int tx = r.x / TILE_SIZE; tx <= (r.x + r.width - 1) / TILE_SIZE; tx++) {
+                long tile = pack(tx, ty);
+                tileNotes.computeIfAbsent(tile, k -> new ArrayList<>()).add(note);
+                if (dirty != null) {
+                    dirty.add(tile);
+                }
+            }
+        }
+    }
+
+    private void removeFromTiles(NoteRecord note, Set<Long> dirty) {
+        Set<Long> tiles = new HashSet<>();
+        tilesOf(screenRect(note), tiles);
+        for (long tile : tiles) {
+            List<NoteRecord> list = tileNotes.get(tile);
+            if (list != null) {
+                list.remove(note);
+                if (list.isEmpty()) {
+                    tileNotes.remove(tile);
+                }
+            }
+        }
+        dirty.addAll(tiles);
+    }
+
+    private void tilesOf(Rectangle r, Set<Long> tiles) {
+        for (int ty = Math.max(0, r.y) / TILE_SIZE; ty <= (r.y + r.height - 1) / TILE_SIZE; ty++) {
+            for (int tx = Math.max(0, r.x) / TILE_SIZE; tx <= (r.x + r.width - 1) / TILE_SIZE; tx++) {
+                tiles.add(pack(tx, ty));
+            }
+        }
+    }
+
+    // Drops the rendered images of some tiles and repaints just those areas
+    private void invalidate(Set<Long> tiles) {
+        for (long tile : tiles) {
+            tileImages.remove(tile);
+            repaint(unpackX(tile) * TILE_SIZE, unpackY(tile) * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+        }
+    }
+
+    private static boolean sameNote(NoteRecord a, NoteRecord b) {
+        return a.x == b.x && a.y == b.y && a.colour.equals(b.colour)
+                && a.pinStatus.equals(b.pinStatus) && a.message.equals(b.message);
+    }
+
+    private static Color colourOf(String name) {
+        Color colour = NAMED_COLOURS.get(name.toLowerCase());
+        if (colour == null) {
+            // Unknown colour names still get a stable pastel
+            colour = Color.getHSBColor((name.hashCode() & 0xFFFF) / 65536f, 0.35f, 0.95f);
+            NAMED_COLOURS.put(name.toLowerCase(), colour);
+        }
+        return colour;
+    }
+
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private static int unpackX(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    private static int unpackY(long packed) {
+        return (int) packed;
+    }
+}
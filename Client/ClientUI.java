@@ -1,7 +1,9 @@
 import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class ClientUI extends JFrame {
     private ProtocolClient client;
@@ -11,6 +13,8 @@ public class ClientUI extends JFrame {
     // Connection panel components
     private JTextField hostField;
     private JTextField portField;
+    private JTextField boardField;
+    private JCheckBox compressCheckbox;
     private JButton connectButton;
     private JButton disconnectButton;
     private JLabel statusLabel;
@@ -29,6 +33,8 @@ public class ClientUI extends JFrame {
     private JCheckBox getContainsCheckbox;
     private JTextField getContainsXField;
     private JTextField getContainsYField;
+    private JCheckBox getRegionCheckbox;
+    private JTextField[] getRegionFields; // X1, Y1, X2, Y2
     private JCheckBox getRefersToCheckbox;
     private JTextField getRefersToField;
     private JButton getNotesButton;
@@ -43,6 +49,14 @@ public class ClientUI extends JFrame {
     // Management panel components
     private JButton shakeButton;
     private JButton clearButton;
+    private JButton statsButton;
+
+    // Result views
+    private BoardCanvas boardCanvas;
+    private JScrollPane boardScrollPane;
+    private JLabel boardViewLabel;
+    private NotesTableModel notesModel;
+    private JTable notesTable;
 
     // Output area
     private JTextArea outputArea;
@@ -70,7 +84,11 @@ public class ClientUI extends JFrame {
         tabbedPane.addTab("GET", createGetPanel());
         tabbedPane.addTab("PIN/UNPIN", createPinPanel());
         tabbedPane.addTab("Management", createManagementPanel());
-        add(tabbedPane, BorderLayout.CENTER);
+
+        // Result views below the commands
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, tabbedPane, createViewPanel());
+        splitPane.setResizeWeight(0);
+        add(splitPane, BorderLayout.CENTER);
 
         // Output panel
         JPanel outputPanel = createOutputPanel();
@@ -99,16 +117,29 @@ public class ClientUI extends JFrame {
         panel.add(portField, gbc);
 
         gbc.gridx = 4;
+        panel.add(new JLabel("Board:"), gbc);
+
+        gbc.gridx = 5;
+        boardField = new JTextField(10);
+        boardField.setToolTipText("Leave empty for the server's default board");
+        panel.add(boardField, gbc);
+
+        gbc.gridx = 6;
+        compressCheckbox = new JCheckBox("Compress");
+        compressCheckbox.setToolTipText("Ask the server to deflate large responses (COMPRESS DEFLATE)");
+        panel.add(compressCheckbox, gbc);
+
+        gbc.gridx = 7;
         connectButton = new JButton("Connect");
         connectButton.addActionListener(e -> handleConnect());
         panel.add(connectButton, gbc);
 
-        gbc.gridx = 5;
+        gbc.gridx = 8;
         disconnectButton = new JButton("Disconnect");
         disconnectButton.addActionListener(e -> handleDisconnect());
         panel.add(disconnectButton, gbc);
 
-        gbc.gridx = 0; gbc.gridy = 1; gbc.gridwidth = 6;
+        gbc.gridx = 0; gbc.gridy = 1; gbc.gridwidth = 9;
         statusLabel = new JLabel("Status: Not connected");
         statusLabel.setForeground(Color.RED);
         panel.add(statusLabel, gbc);
@@ -196,8 +227,29 @@ public class ClientUI extends JFrame {
         gbc.gridwidth = 2;
         panel.add(containsPanel, gbc);
 
-        // RefersTo filter
+        // Region filter
         gbc.gridx = 0; gbc.gridy = 2; gbc.gridwidth = 1;
+        getRegionCheckbox = new JCheckBox("Filter by region:");
+        panel.add(getRegionCheckbox, gbc);
+
+        gbc.gridx = 1;
+        JPanel regionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 3, 0));
+        String[] regionLabels = {"X1:", "Y1:", "X2:", "Y2:"};
+        getRegionFields = new JTextField[regionLabels.length];
+        for (int i = 0; i < regionLabels.length; i++) {
+            regionPanel.add(new JLabel(regionLabels[i]));
+            getRegionFields[i] = new JTextField(5);
+            regionPanel.add(getRegionFields[i]);
+        }
+        JButton regionFromViewButton = new JButton("From View");
+        regionFromViewButton.setToolTipText("Use the part of the board shown in the Board view");
+        regionFromViewButton.addActionListener(e -> handleRegionFromView());
+        regionPanel.add(regionFromViewButton);
+        gbc.gridwidth = 2;
+        panel.add(regionPanel, gbc);
+
+        // RefersTo filter
+        gbc.gridx = 0; gbc.gridy = 3; gbc.gridwidth = 1;
         getRefersToCheckbox = new JCheckBox("Filter by refersTo:");
         panel.add(getRefersToCheckbox, gbc);
 
@@ -206,7 +258,7 @@ public class ClientUI extends JFrame {
         panel.add(getRefersToField, gbc);
 
         // Buttons
-        gbc.gridx = 0; gbc.gridy = 3; gbc.gridwidth = 3;
+        gbc.gridx = 0; gbc.gridy = 4; gbc.gridwidth = 3;
         gbc.anchor = GridBagConstraints.CENTER;
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 5));
         getNotesButton = new JButton("GET Notes");
@@ -269,13 +321,63 @@ public class ClientUI extends JFrame {
         clearButton.addActionListener(e -> handleClear());
         panel.add(clearButton);
 
+        statsButton = new JButton("STATS");
+        statsButton.addActionListener(e -> sendCommand("STATS"));
+        panel.add(statsButton);
+
         return panel;
     }
 
+    private JTabbedPane createViewPanel() {
+        JTabbedPane views = new JTabbedPane();
+
+        // Board: notes and pins drawn at their coordinates
+        boardCanvas = new BoardCanvas();
+        boardCanvas.setPointListener(this::handleBoardClick);
+        boardScrollPane = new JScrollPane(boardCanvas);
+        boardScrollPane.getHorizontalScrollBar().setUnitIncrement(32);
+        boardScrollPane.getVerticalScrollBar().setUnitIncrement(32);
+
+        JPanel zoomPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+        JButton zoomOutButton = new JButton("Zoom Out");
+        zoomOutButton.addActionListener(e -> setBoardScale(boardCanvas.getScale() / 2));
+        zoomPanel.add(zoomOutButton);
+        JButton zoomInButton = new JButton("Zoom In");
+        zoomInButton.addActionListener(e -> setBoardScale(boardCanvas.getScale() * 2));
+        zoomPanel.add(zoomInButton);
+        JButton fitButton = new JButton("Fit");
+        fitButton.addActionListener(e -> setBoardScale(boardCanvas.fitScale(boardScrollPane.getViewport().getExtentSize())));
+        zoomPanel.add(fitButton);
+        boardViewLabel = new JLabel(" ");
+        zoomPanel.add(boardViewLabel);
+
+        JPanel boardPanel = new JPanel(new BorderLayout());
+        boardPanel.add(zoomPanel, BorderLayout.NORTH);
+        boardPanel.add(boardScrollPane, BorderLayout.CENTER);
+        views.addTab("Board", boardPanel);
+
+        // Notes: the last GET result as a table; only the visible rows are rendered
+        notesModel = new NotesTableModel();
+        notesTable = new JTable(notesModel);
+        notesTable.setAutoCreateRowSorter(true);
+        notesTable.setFillsViewportHeight(true);
+        notesTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        notesTable.getColumnModel().getColumn(5).setPreferredWidth(400);
+        notesTable.getSelectionModel().addListSelectionListener(e -> {
+            int row = notesTable.getSelectedRow();
+            if (!e.getValueIsAdjusting() && row >= 0) {
+                boardCanvas.select(notesModel.getNote(notesTable.convertRowIndexToModel(row)).id);
+            }
+        });
+        views.addTab("Notes", new JScrollPane(notesTable));
+
+        return views;
+    }
+
     private JPanel createOutputPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(new TitledBorder("Output"));
-        panel.setPreferredSize(new Dimension(0, 250));
+        panel.setPreferredSize(new Dimension(0, 160));
 
         outputArea = new JTextArea();
         outputArea.setEditable(false);
@@ -289,12 +391,19 @@ public class ClientUI extends JFrame {
     private void handleConnect() {
         String host = hostField.getText().trim();
         String portText = portField.getText().trim();
+        String board = boardField.getText().trim();
+        boolean compress = compressCheckbox.isSelected();
 
         if (host.isEmpty()) {
             appendError("Host cannot be empty");
             return;
         }
 
+        if (board.contains(" ")) {
+            appendError("Board name must be a single token (no spaces)");
+            return;
+        }
+
         int port;
         try {
             port = Integer.parseInt(portText);
@@ -304,18 +413,26 @@ public class ClientUI extends JFrame {
         }
 
         setControlsEnabled(false);
-        appendInfo("Connecting to " + host + ":" + port + "...");
+        appendInfo("Connecting to " + host + ":" + port + (board.isEmpty() ? "" : " (board " + board + ")") + "...");
 
         SwingWorker<Handshake, Void> worker = new SwingWorker<Handshake, Void>() {
+            private boolean compressed;
+
             @Override
             protected Handshake doInBackground() throws Exception {
-                return client.connect(host, port);
+                Handshake hello = client.connect(host, port, board);
+                compressed = compress && client.enableCompression();
+                return hello;
             }
 
             @Override
             protected void done() {
                 try {
                     handshake = get();
+                    if (compress) {
+                        appendInfo(compressed ? "Compression on for large responses"
+                                : "The server does not compress responses; continuing without compression");
+                    }
                     appendInfo("Connected! Received HELLO:");
                     appendInfo("  Board: " + handshake.boardW + "x" + handshake.boardH +
                              ", Note: " + handshake.noteW + "x" + handshake.noteH);
@@ -326,6 +443,7 @@ public class ClientUI extends JFrame {
                                          " | Colours: " + String.join(", ", handshake.colours));
 
                     populateColourDropdowns(handshake.colours);
+                    showBoard(handshake);
                     updateConnectionState(true);
                 } catch (Exception e) {
                     appendError("Connection failed: " + e.getMessage());
@@ -371,6 +489,7 @@ public class ClientUI extends JFrame {
                 updateConnectionState(false);
                 handshake = null;
                 handshakeLabel.setText(" ");
+                showBoard(null);
             }
         };
         worker.execute();
@@ -441,6 +560,24 @@ public class ClientUI extends JFrame {
             }
         }
 
+        if (getRegionCheckbox.isSelected()) {
+            int[] region = new int[getRegionFields.length];
+            try {
+                for (int i = 0; i < region.length; i++) {
+                    region[i] = Integer.parseInt(getRegionFields[i].getText().trim());
+                }
+            } catch (NumberFormatException e) {
+                appendError("Region X1, Y1, X2 and Y2 must be integers");
+                return;
+            }
+            if (region[0] > region[2] || region[1] > region[3]) {
+                appendError("Region requires X1 <= X2 and Y1 <= Y2");
+                return;
+            }
+            command.append(" region=").append(region[0]).append(" ").append(region[1])
+                    .append(" ").append(region[2]).append(" ").append(region[3]);
+        }
+
         if (getRefersToCheckbox.isSelected()) {
             String refersTo = getRefersToField.getText().trim();
             if (refersTo.isEmpty()) {
@@ -457,6 +594,19 @@ public class ClientUI extends JFrame {
         sendCommand(command.toString());
     }
 
+    // Fills the region filter with the part of the board currently in view
+    private void handleRegionFromView() {
+        int[] area = boardCanvas.getVisibleArea();
+        if (area == null) {
+            appendError("No board is shown");
+            return;
+        }
+        for (int i = 0; i < area.length; i++) {
+            getRegionFields[i].setText(String.valueOf(area[i]));
+        }
+        getRegionCheckbox.setSelected(true);
+    }
+
     private void handleGetPins() {
         sendCommand("GET PINS");
     }
@@ -555,24 +705,82 @@ public class ClientUI extends JFrame {
             appendError("< " + error.rawLine);
         } else if (response instanceof NotesListResponse) {
             NotesListResponse notesList = (NotesListResponse) response;
-            appendInfo("< OK " + notesList.notes.size() + " notes:");
-            appendInfo(String.format("  %-4s %-4s %-4s %-10s %-10s %s",
-                                    "ID", "X", "Y", "Colour", "Status", "Message"));
-            appendInfo("  " + "-".repeat(60));
-            for (NoteRecord note : notesList.notes) {
-                appendInfo(String.format("  %-4d %-4d %-4d %-10s %-10s %s",
-                                        note.id, note.x, note.y, note.colour,
-                                        note.pinStatus, note.message));
+            if (notesList.unchanged) {
+                appendInfo("< NOT_MODIFIED " + notesList.version + " (showing the cached result)");
             }
-            appendInfo("< END");
+            // The notes go to the Board and Notes views, which only draw what is visible
+            appendInfo("< " + (notesList.unchanged ? "Cached " : "OK ") + notesList.notes.size() + " notes"
+                    + (notesList.version >= 0 ? " (version " + notesList.version + ")" : "")
+                    + " - see the Board and Notes views");
+            notesModel.setNotes(notesList.notes);
+            boardCanvas.setNotes(notesList.notes);
+            updateBoardViewLabel();
+        } else if (response instanceof NotModifiedResponse) {
+            appendInfo("< NOT_MODIFIED " + ((NotModifiedResponse) response).version);
         } else if (response instanceof PinsListResponse) {
             PinsListResponse pinsList = (PinsListResponse) response;
+            boardCanvas.setPins(pinsList.pins);
             appendInfo("< OK " + pinsList.pins.size() + " pins:");
             for (PinRecord pin : pinsList.pins) {
                 appendInfo("  PIN " + pin.x + " " + pin.y);
             }
             appendInfo("< END");
+        } else if (response instanceof DeltaResponse) {
+            DeltaResponse delta = (DeltaResponse) response;
+            appendInfo("< Changes up to version " + delta.version + ":");
+            if (delta.cleared) {
+                appendInfo("  CLEARED");
+            }
+            for (NoteRecord note : delta.notes) {
+                appendInfo(String.format("  NOTE %d %d %d %s %s %s",
+                                        note.id, note.x, note.y, note.colour, note.pinStatus, note.message));
+            }
+            for (int id : delta.removed) {
+                appendInfo("  REMOVED " + id);
+            }
+            for (PinRecord pin : delta.pinsAdded) {
+                appendInfo("  PIN " + pin.x + " " + pin.y);
+            }
+            for (PinRecord pin : delta.pinsRemoved) {
+                appendInfo("  UNPIN " + pin.x + " " + pin.y);
+            }
+            appendInfo("< END");
+        } else if (response instanceof InfoResponse) {
+            InfoResponse info = (InfoResponse) response;
+            appendInfo("< OK " + info.lines.size() + ":");
+            for (Map.Entry<String, String> stat : info.stats.entrySet()) {
+                appendInfo(String.format("  %-24s %s", stat.getKey(), stat.getValue()));
+            }
+            appendInfo("< END");
+        }
+    }
+
+    private void showBoard(Handshake hello) {
+        notesModel.setNotes(new ArrayList<>());
+        if (hello == null) {
+            boardCanvas.clearBoard();
+            boardViewLabel.setText(" ");
+            return;
         }
+        boardCanvas.setBoard(hello);
+        setBoardScale(boardCanvas.fitScale(boardScrollPane.getViewport().getExtentSize()));
+    }
+
+    private void setBoardScale(double scale) {
+        boardCanvas.setScale(scale);
+        updateBoardViewLabel();
+    }
+
+    private void updateBoardViewLabel() {
+        boardViewLabel.setText(String.format("%d notes, zoom %.0f%%", boardCanvas.getNoteCount(), boardCanvas.getScale() * 100));
+    }
+
+    // Clicking the board fills in the coordinates for PIN/UNPIN and the contains filter
+    private void handleBoardClick(int x, int y) {
+        pinXField.setText(String.valueOf(x));
+        pinYField.setText(String.valueOf(y));
+        getContainsXField.setText(String.valueOf(x));
+        getContainsYField.setText(String.valueOf(y));
     }
 
     private void populateColourDropdowns(List<String> colours) {
@@ -591,11 +799,15 @@ public class ClientUI extends JFrame {
             statusLabel.setForeground(new Color(0, 128, 0));
             connectButton.setEnabled(false);
             disconnectButton.setEnabled(true);
+            boardField.setEnabled(false);
+            compressCheckbox.setEnabled(false);
         } else {
             statusLabel.setText("Status: Not connected");
             statusLabel.setForeground(Color.RED);
             connectButton.setEnabled(true);
             disconnectButton.setEnabled(false);
+            boardField.setEnabled(true);
+            compressCheckbox.setEnabled(true);
         }
         setControlsEnabled(connected);
     }
@@ -610,6 +822,7 @@ public class ClientUI extends JFrame {
         unpinButton.setEnabled(commandsEnabled);
         shakeButton.setEnabled(commandsEnabled);
         clearButton.setEnabled(commandsEnabled);
+        statsButton.setEnabled(commandsEnabled);
 
         if (!enabled || handshake == null) {
             postColourCombo.setEnabled(false);
@@ -0,0 +1,21 @@
+import java.util.List;
+
+// Reply to GET SINCE <version>: what changed on the board since that version
+public class DeltaResponse extends Response {
+    public final long version;
+    public final boolean cleared; // The board was cleared; drop everything before applying the rest
+    public final List<NoteRecord> notes; // Notes added or whose pin status changed, in their current state
+    public final List<Integer> removed;
+    public final List<PinRecord> pinsAdded;
+    public final List<PinRecord> pinsRemoved;
+
+    public DeltaResponse(long version, boolean cleared, List<NoteRecord> notes, List<Integer> removed,
+                         List<PinRecord> pinsAdded, List<PinRecord> pinsRemoved) {
+        this.version = version;
+        this.cleared = cleared;
+        this.notes = notes;
+        this.removed = removed;
+        this.pinsAdded = pinsAdded;
+        this.pinsRemoved = pinsRemoved;
+    }
+}
@@ -0,0 +1,20 @@
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class InfoResponse extends Response {
+    public final List<String> lines;
+    public final Map<String, String> stats;
+
+    public InfoResponse(List<String> lines) {
+        this.lines = lines;
+        this.stats = new LinkedHashMap<>();
+        for (String line : lines) {
+            // STAT <key> <value...>
+            String[] tokens = line.split("\\s+", 3);
+            if (tokens.length >= 2 && tokens[0].equals("STAT")) {
+                stats.put(tokens[1], tokens.length > 2 ? tokens[2] : "");
+            }
+        }
+    }
+}
@@ -0,0 +1,384 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Multi-connection load generator for the bulletin board server.
+ *
+ * Opens N connections and drives an open-loop mix of commands: each connection sends requests at
+ * Poisson-distributed arrival times regardless of how fast the server answers, and latency is
+ * measured from the time a request was due, so server stalls show up as queueing delay instead of
+ * silently lowering the offered load.
+ *
+ * Usage:
+ *   java LoadGenerator <host> <port> [--connections 16] [--rate 2000] [--duration 30] [--warmup 5]
+ *                      [--mix post=40,get=40,pin=10,unpin=5,shake=5] [--board <name>]
+ */
+public class LoadGenerator {
+    private static final String[] COMMANDS = {"post", "get", "getpins", "pin", "unpin", "shake"};
+
+    private final String host;
+    private final int port;
+    private final String board;
+    private final int connections;
+    private final double rate;
+    private final long durationNanos;
+    private final long warmupNanos;
+    private final double[] cumulativeMix;
+
+    public LoadGenerator(String host, int port, String board, int connections, double rate,
+                         long durationSeconds, long warmupSeconds, double[] mix) {
+        this.host = host;
+        this.port = port;
+        this.board = board;
+        this.connections = connections;
+        this.rate = rate;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+
+        double total = 0;
+        for (double weight : mix) {
+            total += weight;
+        }
+        this.cumulativeMix = new double[mix.length];
+        double running = 0;
+        for (int i = 0; i < mix.length; i++) {
+            running += mix[i] / total;
+            cumulativeMix[i] = running;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            printUsageAndExit();
+        }
+
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        int connections = 16;
+        double rate = 2000;
+        long duration = 30;
+        long warmup = 5;
+        String board = null;
+        double[] mix = {40, 40, 0, 10, 5, 5};
+
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--connections":
+                    connections = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--rate":
+                    rate = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--duration":
+                    duration = Long.parseLong(args[i + 1]);
+                    break;
+                case "--warmup":
+                    warmup = Long.parseLong(args[i + 1]);
+                    break;
+                case "--board":
+                    board = args[i + 1];
+                    break;
+                case "--mix":
+                    mix = parseMix(args[i + 1]);
+                    break;
+                default:
+                    printUsageAndExit();
+            }
+        }
+
+        if (connections < 1 || rate <= 0 || duration < 1 || warmup < 0) {
+            printUsageAndExit();
+        }
+
+        new LoadGenerator(host, port, board, connections, rate, duration, warmup, mix).run();
+    }
+
+    public void run() throws Exception {
+        System.out.println("Driving " + host + ":" + port + " with " + connections + " connections at "
+                + rate + " req/s for " + TimeUnit.NANOSECONDS.toSeconds(durationNanos) + "s (+"
+                + TimeUnit.NANOSECONDS.toSeconds(warmupNanos) + "s warmup)");
+
+        ExecutorService executor = Executors.newFixedThreadPool(connections);
+        List<Future<Worker>> futures = new ArrayList<>();
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+        for (int i = 0; i < connections; i++) {
+            Worker worker = new Worker(start);
+            futures.add(executor.submit(worker, worker));
+        }
+
+        Histogram[] histograms = new Histogram[COMMANDS.length];
+        long[] errors = new long[COMMANDS.length];
+        for (int i = 0; i < COMMANDS.length; i++) {
+            histograms[i] = new Histogram();
+        }
+        for (Future<Worker> future : futures) {
+            Worker worker = future.get();
+            if (worker.failure != null) {
+                System.err.println("Connection failed: " + worker.failure.getMessage());
+            }
+            for (int i = 0; i < COMMANDS.length; i++) {
+                histograms[i].add(worker.histograms[i]);
+                errors[i] += worker.errors[i];
+            }
+        }
+        executor.shutdown();
+
+        printReport(histograms, errors);
+    }
+
+    private void printReport(Histogram[] histograms, long[] errors) {
+        double seconds = durationNanos / 1e9;
+        Histogram all = new Histogram();
+        long allErrors = 0;
+
+        System.out.println();
+        System.out.println(String.format("%-9s %10s %8s %10s %10s %10s %10s %10s",
+                "Command", "Requests", "Errors", "Req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        System.out.println("-".repeat(85));
+        for (int i = 0; i < COMMANDS.length; i++) {
+            if (histograms[i].count() == 0) {
+                continue;
+            }
+            printRow(COMMANDS[i], histograms[i], errors[i], seconds);
+            all.add(histograms[i]);
+            allErrors += errors[i];
+        }
+        System.out.println("-".repeat(85));
+        printRow("total", all, allErrors, seconds);
+    }
+
+    private void printRow(String name, Histogram histogram, long errorCount, double seconds) {
+        System.out.println(String.format("%-9s %10d %8d %10.1f %10.3f %10.3f %10.3f %10.3f",
+                name, histogram.count(), errorCount, histogram.count() / seconds,
+                histogram.percentile(50) / 1000.0, histogram.percentile(99) / 1000.0,
+                histogram.percentile(99.9) / 1000.0, histogram.max() / 1000.0));
+    }
+
+    /**
+     * One connection issuing requests on its own Poisson arrival schedule.
+     */
+    private class Worker implements Runnable {
+        private final long start;
+        private final Histogram[] histograms = new Histogram[COMMANDS.length];
+        private final long[] errors = new long[COMMANDS.length];
+        private Exception failure;
+
+        Worker(long start) {
+            this.start = start;
+            for (int i = 0; i < COMMANDS.length; i++) {
+                histograms[i] = new Histogram();
+            }
+        }
+
+        @Override
+        public void run() {
+            ProtocolClient client = new ProtocolClient();
+            client.setQueryCacheEnabled(false); // Every GET should run its query on the server
+            Random random = new Random();
+            double meanIntervalNanos = 1e9 * connections / rate;
+
+            try {
+                Handshake handshake = client.connect(host, port, board);
+                List<int[]> posted = new ArrayList<>(); // Note corners this connection has posted.
+                List<int[]> pinned = new ArrayList<>(); // Pins this connection has placed.
+                long measureFrom = start + warmupNanos;
+                long end = measureFrom + durationNanos;
+                long due = start;
+
+                while (true) {
+                    due += (long) (-Math.log(1 - random.nextDouble()) * meanIntervalNanos);
+                    if (due >= end) {
+                        break;
+                    }
+                    long now = System.nanoTime();
+                    if (due > now) {
+                        TimeUnit.NANOSECONDS.sleep(due - now);
+                    }
+
+                    int command = pickCommand(random.nextDouble());
+                    String line = buildCommand(command, handshake, random, posted, pinned);
+                    Response response = client.sendAndRead(line);
+                    long latencyMicros = (System.nanoTime() - due) / 1000;
+
+                    if (due >= measureFrom) {
+                        histograms[command].record(latencyMicros);
+                        if (response instanceof ErrorResponse) {
+                            errors[command]++;
+                        }
+                    }
+                    track(command, line, response, posted, pinned);
+                }
+                client.disconnect();
+            } catch (Exception e) {
+                failure = e;
+                client.close();
+            }
+        }
+    }
+
+    private int pickCommand(double sample) {
+        for (int i = 0; i < cumulativeMix.length; i++) {
+            if (sample < cumulativeMix[i]) {
+                return i;
+            }
+        }
+        return cumulativeMix.length - 1;
+    }
+
+    private String buildCommand(int command, Handshake handshake, Random random, List<int[]> posted, List<int[]> pinned) {
+        switch (COMMANDS[command]) {
+            case "post": {
+                int x = random.nextInt(handshake.boardW - handshake.noteW + 1);
+                int y = random.nextInt(handshake.boardH - handshake.noteH + 1);
+                String colour = handshake.colours.get(random.nextInt(handshake.colours.size()));
+                return "POST " + x + " " + y + " " + colour + " load test note " + random.nextInt(1000);
+            }
+            case "get":
+                switch (random.nextInt(3)) {
+                    case 0:
+                        return "GET";
+                    case 1:
+                        return "GET colour=" + handshake.colours.get(random.nextInt(handshake.colours.size()));
+                    default:
+                        return "GET contains=" + random.nextInt(handshake.boardW) + " " + random.nextInt(handshake.boardH);
+                }
+            case "getpins":
+                return "GET PINS";
+            case "pin": {
+                // Pin inside a note we posted, so most pins succeed.
+                if (!posted.isEmpty()) {
+                    int[] corner = posted.get(random.nextInt(posted.size()));
+                    return "PIN " + (corner[0] + random.nextInt(handshake.noteW)) + " " + (corner[1] + random.nextInt(handshake.noteH));
+                }
+                return "PIN " + random.nextInt(handshake.boardW) + " " + random.nextInt(handshake.boardH);
+            }
+            case "unpin": {
+                if (!pinned.isEmpty()) {
+                    int[] pin = pinned.remove(pinned.size() - 1);
+                    return "UNPIN " + pin[0] + " " + pin[1];
+                }
+                return "UNPIN " + random.nextInt(handshake.boardW) + " " + random.nextInt(handshake.boardH);
+            }
+            default:
+                return "SHAKE";
+        }
+    }
+
+    private void track(int command, String line, Response response, List<int[]> posted, List<int[]> pinned) {
+        if (response instanceof ErrorResponse) {
+            return;
+        }
+        String[] tokens = line.split(" ");
+        if (COMMANDS[command].equals("post")) {
+            posted.add(new int[]{Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2])});
+            if (posted.size() > 10_000) {
+                posted.remove(0);
+            }
+        } else if (COMMANDS[command].equals("pin")) {
+            pinned.add(new int[]{Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2])});
+        } else if (COMMANDS[command].equals("shake")) {
+            // Unpinned notes are gone; stop aiming pins at them.
+            posted.clear();
+        }
+    }
+
+    private static double[] parseMix(String value) {
+        double[] mix = new double[COMMANDS.length];
+        for (String part : value.split(",")) {
+            String[] entry = part.split("=");
+            int index = Arrays.asList(COMMANDS).indexOf(entry[0].trim().toLowerCase());
+            if (entry.length != 2 || index < 0) {
+                System.err.println("Invalid mix entry '" + part + "'. Commands: " + String.join(", ", COMMANDS));
+                System.exit(1);
+            }
+            mix[index] = Double.parseDouble(entry[1]);
+        }
+        return mix;
+    }
+
+    private static void printUsageAndExit() {
+        System.err.println("\nUsage: java LoadGenerator <host> <port> [options]");
+        System.err.println("\nOptions:");
+        System.err.println("  --connections <n>   Concurrent connections (default 16)");
+        System.err.println("  --rate <req/s>      Total offered load across all connections (default 2000)");
+        System.err.println("  --duration <s>      Measured run time (default 30)");
+        System.err.println("  --warmup <s>        Unmeasured time before measuring (default 5)");
+        System.err.println("  --mix <cmd=w,...>   Command weights from " + String.join(", ", COMMANDS)
+                + " (default post=40,get=40,pin=10,unpin=5,shake=5)");
+        System.err.println("  --board <name>      Board to USE after connecting");
+        System.err.println();
+        System.exit(1);
+    }
+
+    /**
+     * Log-linear latency histogram in microseconds, in the style of HdrHistogram:
+     * values below 128 are exact, larger values are kept to within 1/64 (about 1.5%).
+     */
+    static class Histogram {
+        private static final int SUB_BUCKETS = 64;
+        private static final int BUCKETS = 2 * SUB_BUCKETS + 58 * SUB_BUCKETS;
+
+        private final long[] counts = new long[BUCKETS];
+        private long count;
+        private long max;
+
+        void record(long value) {
+            value = Math.max(0, value);
+            counts[indexOf(value)]++;
+            count++;
+            max = Math.max(max, value);
+        }
+
+        void add(Histogram other) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += other.counts[i];
+            }
+            count += other.count;
+            max = Math.max(max, other.max);
+        }
+
+        long count() {
+            return count;
+        }
+
+        long max() {
+            return max;
+        }
+
+        /**
+         * Returns the value at the given percentile (upper edge of its bucket, capped at the maximum).
+         */
+        long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(count * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(upperValueOf(i), max);
+                }
+            }
+            return max;
+        }
+
+        private static int indexOf(long value) {
+            if (value < 2 * SUB_BUCKETS) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - 6; // value >> shift lies in [64, 128).
+            return 2 * SUB_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) ((value >> shift) - SUB_BUCKETS);
+        }
+
+        private static long upperValueOf(int index) {
+            if (index < 2 * SUB_BUCKETS) {
+                return index;
+            }
+            int shift = (index - 2 * SUB_BUCKETS) / SUB_BUCKETS + 1;
+            long sub = (index - 2 * SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+            return ((sub + 1) << shift) - 1;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+// Reply to GET IFCHANGED <version> when the board is still at that version
+public class NotModifiedResponse extends Response {
+    public final long version;
+
+    public NotModifiedResponse(long version) {
+        this.version = version;
+    }
+}
@@ -2,8 +2,20 @@ import java.util.List;
 
 public class NotesListResponse extends Response {
     public final List<NoteRecord> notes;
+    public final long version; // Board version of the result, -1 if the server did not send one
+    public final boolean unchanged; // Repeated from the client's cache after a NOT_MODIFIED reply
 
     public NotesListResponse(List<NoteRecord> notes) {
+        this(notes, -1);
+    }
+
+    public NotesListResponse(List<NoteRecord> notes, long version) {
+        this(notes, version, false);
+    }
+
+    public NotesListResponse(List<NoteRecord> notes, long version, boolean unchanged) {
         this.notes = notes;
+        this.version = version;
+        this.unchanged = unchanged;
     }
 }
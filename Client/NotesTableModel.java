@@ -0,0 +1,61 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+// Table model over the notes of the last GET result.
+// JTable only asks for the cells of the rows in view, so a result of any size is shown without
+// building a component or string per note; replacing the result is one list swap and one event.
+public class NotesTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private static final String[] COLUMNS = {"ID", "X", "Y", "Colour", "Status", "Message"};
+
+    private List<NoteRecord> notes = new ArrayList<>();
+
+    public void setNotes(List<NoteRecord> notes) {
+        this.notes = notes;
+        fireTableDataChanged();
+    }
+
+    public NoteRecord getNote(int row) {
+        return notes.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return notes.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column <= 2 ? Integer.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        NoteRecord note = notes.get(row);
+        switch (column) {
+            case 0:
+                return note.id;
+            case 1:
+                return note.x;
+            case 2:
+                return note.y;
+            case 3:
+                return note.colour;
+            case 4:
+                return note.pinStatus;
+            default:
+                return note.message;
+        }
+    }
+}
@@ -1,13 +1,34 @@
 import java.io.*;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 public class ProtocolClient {
+    private static final int DISCONNECT_TIMEOUT_MS = 2000;
+    private static final int QUERY_CACHE_SIZE = 32; // Most recently used GET queries kept for GET IFCHANGED
+
     private Socket socket;
     private BufferedReader in;
     private PrintWriter out;
+    private boolean queryCacheEnabled = true;
+    private final Inflater inflater = new Inflater(true); // Raw deflate, reused for every DEFLATE line
+    private long compressedResponses;
+    private long compressedWireBytes; // Characters of DEFLATE lines received
+    private long compressedRawBytes; // Bytes those lines expanded to
+
+    // Last result of each note query (filters -> notes and version), least recently used first
+    private final Map<String, NotesListResponse> queryCache =
+            new LinkedHashMap<String, NotesListResponse>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, NotesListResponse> eldest) {
+                    return size() > QUERY_CACHE_SIZE;
+                }
+            };
 
     public Handshake connect(String host, int port) throws IOException {
+        queryCache.clear();
         socket = new Socket(host, port);
         in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
         out = new PrintWriter(socket.getOutputStream(), true);
@@ -21,7 +42,44 @@ public class ProtocolClient {
         return parseHandshake(helloLine);
     }
 
-    private Handshake parseHandshake(String line) throws IOException {
+    public Handshake connect(String host, int port, String board) throws IOException {
+        Handshake handshake = connect(host, port);
+        if (board == null || board.isEmpty()) {
+            return handshake;
+        }
+
+        try {
+            return useBoard(board);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public Handshake useBoard(String board) throws IOException {
+        if (out == null || in == null) {
+            throw new IOException("Not connected");
+        }
+
+        // USE <board> is answered with the HELLO line of the selected board; cached versions belong to the old one
+        queryCache.clear();
+        out.println("USE " + board);
+
+        String line = in.readLine();
+        if (line == null) {
+            throw new IOException("Server closed connection");
+        }
+        if (line.startsWith("DEFLATE ")) {
+            line = inflate(line).trim();
+        }
+        if (line.startsWith("ERROR")) {
+            throw new IOException("Cannot use board '" + board + "': " + line);
+        }
+
+        return parseHandshake(line);
+    }
+
+    Handshake parseHandshake(String line) throws IOException {
         // Expected: HELLO <board_w> <board_h> <note_w> <note_h> COLOURS <k> <colour1> ... <colourk>
         String[] tokens = line.split("\\s+");
         if (tokens.length < 7 || !tokens[0].equals("HELLO") || !tokens[5].equals("COLOURS")) {
@@ -46,14 +104,22 @@ public class ProtocolClient {
         }
     }
 
+    // Reads responses from the given streams instead of a socket (used by the benchmarks)
+    void attach(BufferedReader in, PrintWriter out) {
+        this.in = in;
+        this.out = out;
+    }
+
     public void disconnect() throws IOException {
         try {
             if (out != null) {
                 out.println("DISCONNECT");
             }
             if (in != null) {
-                // Read OK response (with timeout protection)
-                // Don't wait indefinitely for response
+                // Read OK response, but don't wait indefinitely for it
+                if (socket != null) {
+                    socket.setSoTimeout(DISCONNECT_TIMEOUT_MS);
+                }
                 in.readLine();
             }
         } catch (IOException e) {
@@ -63,22 +129,132 @@ public class ProtocolClient {
         }
     }
 
+    // Asks the server to compress large responses; returns false if it refused (or does not support COMPRESS)
+    public boolean enableCompression() throws IOException {
+        Response response = sendAndRead("COMPRESS DEFLATE");
+        return response instanceof OkResponse;
+    }
+
+    public long getCompressedResponses() {
+        return compressedResponses;
+    }
+
+    public long getCompressedWireBytes() {
+        return compressedWireBytes;
+    }
+
+    public long getCompressedRawBytes() {
+        return compressedRawBytes;
+    }
+
+    // Repeated note queries are sent as GET IFCHANGED and answered from the cache when unchanged (on by default)
+    public void setQueryCacheEnabled(boolean enabled) {
+        queryCacheEnabled = enabled;
+        queryCache.clear();
+    }
+
+    // GET of the notes intersecting a rectangle (inclusive corners), with optional further filters such as "colour=red"
+    public Response getRegion(int x1, int y1, int x2, int y2, String filters) throws IOException {
+        String command = "GET region=" + x1 + " " + y1 + " " + x2 + " " + y2;
+        return sendAndRead(filters == null || filters.isEmpty() ? command : command + " " + filters);
+    }
+
+    // GET NEAREST: the k notes closest to a point, nearest first, optionally only those of one colour (null = any)
+    public Response getNearest(int x, int y, int k, String colour) throws IOException {
+        String command = "GET NEAREST " + x + " " + y + " " + k;
+        return sendAndRead(colour == null ? command : command + " colour=" + colour);
+    }
+
     public Response sendAndRead(String commandLine) throws IOException {
         if (out == null || in == null) {
             throw new IOException("Not connected");
         }
 
-        out.println(commandLine);
+        String queryKey = queryCacheEnabled ? noteQueryKey(commandLine) : null;
+        NotesListResponse cached = queryKey != null ? queryCache.get(queryKey) : null;
+        String sent = cached != null
+                ? "GET IFCHANGED " + cached.version + (queryKey.isEmpty() ? "" : " " + queryKey)
+                : commandLine;
+        out.println(sent);
 
         String responseLine = in.readLine();
         if (responseLine == null) {
             throw new IOException("Server closed connection");
         }
 
-        return parseResponse(responseLine, commandLine);
+        Response response;
+        if (responseLine.startsWith("DEFLATE ")) {
+            // The whole response is inside the line; parse it from the inflated text instead of the socket
+            BufferedReader socketIn = in;
+            in = new BufferedReader(new StringReader(inflate(responseLine)));
+            try {
+                response = parseResponse(in.readLine(), sent);
+            } finally {
+                in = socketIn;
+            }
+        } else {
+            response = parseResponse(responseLine, sent);
+        }
+        if (queryKey == null) {
+            return response;
+        }
+        if (response instanceof NotModifiedResponse && cached != null) {
+            return new NotesListResponse(cached.notes, cached.version, true);
+        }
+        if (response instanceof NotesListResponse && ((NotesListResponse) response).version >= 0) {
+            queryCache.put(queryKey, (NotesListResponse) response);
+        } else {
+            queryCache.remove(queryKey);
+        }
+        return response;
     }
 
-    private Response parseResponse(String line, String sentCommand) throws IOException {
+    // Expands a DEFLATE <bytes> <base64> line into the response text it replaced
+    private String inflate(String line) throws IOException {
+        String[] tokens = line.split(" ", 3);
+        if (tokens.length != 3) {
+            throw new IOException("Invalid DEFLATE format");
+        }
+        try {
+            byte[] raw = new byte[Integer.parseInt(tokens[1])];
+            inflater.reset();
+            inflater.setInput(Base64.getDecoder().decode(tokens[2]));
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int n = inflater.inflate(raw, length, raw.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != raw.length) {
+                throw new IOException("DEFLATE line expanded to " + length + " bytes, expected " + raw.length);
+            }
+            compressedResponses++;
+            compressedWireBytes += line.length();
+            compressedRawBytes += raw.length;
+            return new String(raw, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException | DataFormatException e) {
+            throw new IOException("Invalid DEFLATE data: " + e.getMessage());
+        }
+    }
+
+    // Filters of a plain note query (GET [filters]), normalised to single spaces, or null for any other command
+    private static String noteQueryKey(String commandLine) {
+        String[] tokens = commandLine.trim().split("\\s+");
+        if (!tokens[0].equalsIgnoreCase("GET")) {
+            return null;
+        }
+        if (tokens.length > 1) {
+            String sub = tokens[1].toUpperCase();
+            if (sub.equals("PINS") || sub.equals("SINCE") || sub.equals("IFCHANGED")) {
+                return null;
+            }
+        }
+        return String.join(" ", Arrays.asList(tokens).subList(1, tokens.length));
+    }
+
+    Response parseResponse(String line, String sentCommand) throws IOException {
         if (line.startsWith("ERROR")) {
             // ERROR <CODE> <description...>
             String[] tokens = line.split("\\s+", 3);
@@ -91,6 +267,16 @@ public class ProtocolClient {
             return new OkResponse();
         }
 
+        if (line.startsWith("NOT_MODIFIED")) {
+            // NOT_MODIFIED <version>
+            String[] tokens = line.split("\\s+");
+            try {
+                return new NotModifiedResponse(tokens.length >= 2 ? Long.parseLong(tokens[1]) : -1);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid version in response: " + line);
+            }
+        }
+
         if (line.startsWith("OK NOTE")) {
             // OK NOTE <note_id>
             String[] tokens = line.split("\\s+");
@@ -110,12 +296,18 @@ public class ProtocolClient {
             String[] tokens = line.split("\\s+");
             try {
                 int count = Integer.parseInt(tokens[1]);
+                // OK <count> VERSION <version> for note lists
+                long version = tokens.length >= 4 && tokens[2].equals("VERSION") ? Long.parseLong(tokens[3]) : -1;
 
-                // Determine if this is notes or pins based on command
+                // Determine if this is notes, pins, changes or diagnostics based on command
                 if (sentCommand.startsWith("GET PINS")) {
                     return readPinsList(count);
+                } else if (sentCommand.toUpperCase().startsWith("GET SINCE")) {
+                    return readDelta(count, version);
+                } else if (isInfoCommand(sentCommand)) {
+                    return readInfoList(count);
                 } else {
-                    return readNotesList(count);
+                    return readNotesList(count, version);
                 }
             } catch (NumberFormatException e) {
                 throw new IOException("Invalid count in response: " + line);
@@ -125,7 +317,31 @@ public class ProtocolClient {
         throw new IOException("Unexpected response: " + line);
     }
 
-    private NotesListResponse readNotesList(int count) throws IOException {
+    private boolean isInfoCommand(String command) {
+        String cmd = command.trim().split("\\s+")[0].toUpperCase();
+        return cmd.equals("REPLICATION") || cmd.equals("STATS") || cmd.equals("SLOWLOG") || cmd.equals("LOCKS");
+    }
+
+    private InfoResponse readInfoList(int count) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String line = in.readLine();
+            if (line == null) {
+                throw new IOException("Unexpected end of stream while reading response");
+            }
+            lines.add(line);
+        }
+
+        // Read END line
+        String endLine = in.readLine();
+        if (endLine == null || !endLine.equals("END")) {
+            throw new IOException("Expected END, got: " + endLine);
+        }
+
+        return new InfoResponse(lines);
+    }
+
+    private NotesListResponse readNotesList(int count, long version) throws IOException {
         List<NoteRecord> notes = new ArrayList<>();
         for (int i = 0; i < count; i++) {
             String line = in.readLine();
@@ -141,7 +357,46 @@ public class ProtocolClient {
             throw new IOException("Expected END, got: " + endLine);
         }
 
-        return new NotesListResponse(notes);
+        return new NotesListResponse(notes, version);
+    }
+
+    private DeltaResponse readDelta(int count, long version) throws IOException {
+        boolean cleared = false;
+        List<NoteRecord> notes = new ArrayList<>();
+        List<Integer> removed = new ArrayList<>();
+        List<PinRecord> pinsAdded = new ArrayList<>();
+        List<PinRecord> pinsRemoved = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String line = in.readLine();
+            if (line == null) {
+                throw new IOException("Unexpected end of stream while reading changes");
+            }
+            try {
+                if (line.equals("CLEARED")) {
+                    cleared = true;
+                } else if (line.startsWith("NOTE ")) {
+                    notes.add(parseNoteRecord(line));
+                } else if (line.startsWith("REMOVED ")) {
+                    removed.add(Integer.parseInt(line.substring(8).trim()));
+                } else if (line.startsWith("PIN ")) {
+                    pinsAdded.add(parsePinRecord(line));
+                } else if (line.startsWith("UNPIN ")) {
+                    pinsRemoved.add(parsePinRecord("PIN " + line.substring(6)));
+                } else {
+                    throw new IOException("Invalid change line: " + line);
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid change line: " + line);
+            }
+        }
+
+        // Read END line
+        String endLine = in.readLine();
+        if (endLine == null || !endLine.equals("END")) {
+            throw new IOException("Expected END, got: " + endLine);
+        }
+
+        return new DeltaResponse(version, cleared, notes, removed, pinsAdded, pinsRemoved);
     }
 
     private PinsListResponse readPinsList(int count) throws IOException {
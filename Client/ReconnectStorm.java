@@ -0,0 +1,211 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconnect-storm benchmark for the bulletin board server.
+ *
+ * Simulates every client reconnecting at once after a network blip: each round opens all the
+ * connections at the same instant with non-blocking sockets from one thread, and times each one
+ * from connect() until its HELLO line arrives, which covers the listen backlog, accept() and the
+ * server creating the connection's handler. The connections are then dropped without DISCONNECT,
+ * as a blip would, before the next round.
+ *
+ * Usage:
+ *   java ReconnectStorm <host> <port> [--clients 1000] [--rounds 5] [--pause 2] [--timeout 30]
+ */
+public class ReconnectStorm {
+    private final InetSocketAddress address;
+    private final int clients;
+    private final int rounds;
+    private final long pauseMillis;
+    private final long timeoutNanos;
+
+    public ReconnectStorm(String host, int port, int clients, int rounds, long pauseSeconds, long timeoutSeconds) {
+        this.address = new InetSocketAddress(host, port);
+        this.clients = clients;
+        this.rounds = rounds;
+        this.pauseMillis = TimeUnit.SECONDS.toMillis(pauseSeconds);
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutSeconds);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            printUsageAndExit();
+        }
+
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        int clients = 1000;
+        int rounds = 5;
+        long pause = 2;
+        long timeout = 30;
+
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--clients":
+                    clients = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--rounds":
+                    rounds = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--pause":
+                    pause = Long.parseLong(args[i + 1]);
+                    break;
+                case "--timeout":
+                    timeout = Long.parseLong(args[i + 1]);
+                    break;
+                default:
+                    printUsageAndExit();
+            }
+        }
+
+        if (clients < 1 || rounds < 1 || pause < 0 || timeout < 1) {
+            printUsageAndExit();
+        }
+
+        new ReconnectStorm(host, port, clients, rounds, pause, timeout).run();
+    }
+
+    public void run() throws Exception {
+        System.out.println("Reconnecting " + clients + " clients at once to " + address.getHostString() + ":"
+                + address.getPort() + ", " + rounds + " rounds");
+        System.out.println();
+        System.out.println(String.format("%-7s %10s %8s %10s %10s %10s %10s %12s",
+                "Round", "Connected", "Failed", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "all in ms"));
+        System.out.println("-".repeat(85));
+
+        LoadGenerator.Histogram all = new LoadGenerator.Histogram();
+        for (int round = 1; round <= rounds; round++) {
+            LoadGenerator.Histogram histogram = new LoadGenerator.Histogram();
+            long[] result = storm(histogram); // {failed, nanos until the last HELLO}
+            printRow(String.valueOf(round), histogram, result[0], result[1] / 1e6);
+            all.add(histogram);
+            if (round < rounds) {
+                Thread.sleep(pauseMillis);
+            }
+        }
+        System.out.println("-".repeat(85));
+        printRow("total", all, -1, -1);
+    }
+
+    private void printRow(String name, LoadGenerator.Histogram histogram, long failed, double drainMillis) {
+        System.out.println(String.format("%-7s %10d %8s %10.3f %10.3f %10.3f %10.3f %12s",
+                name, histogram.count(), failed < 0 ? "" : String.valueOf(failed),
+                histogram.percentile(50) / 1000.0, histogram.percentile(99) / 1000.0,
+                histogram.percentile(99.9) / 1000.0, histogram.max() / 1000.0,
+                drainMillis < 0 ? "" : String.format("%.1f", drainMillis)));
+    }
+
+    /**
+     * Connects every client at once and waits for all the HELLO lines, recording each latency in microseconds.
+     */
+    private long[] storm(LoadGenerator.Histogram histogram) throws IOException {
+        List<SocketChannel> channels = new ArrayList<>(clients);
+        long failed = 0;
+        long lastHello = 0;
+        try (Selector selector = Selector.open()) {
+            long start = System.nanoTime();
+            for (int i = 0; i < clients; i++) {
+                try {
+                    SocketChannel channel = SocketChannel.open();
+                    channels.add(channel);
+                    channel.configureBlocking(false);
+                    Attempt attempt = new Attempt(System.nanoTime());
+                    if (channel.connect(address)) {
+                        channel.register(selector, SelectionKey.OP_READ, attempt);
+                    } else {
+                        channel.register(selector, SelectionKey.OP_CONNECT, attempt);
+                    }
+                } catch (IOException e) {
+                    failed++;
+                }
+            }
+
+            int pending = selector.keys().size();
+            long deadline = start + timeoutNanos;
+            while (pending > 0 && System.nanoTime() < deadline) {
+                selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    SocketChannel channel = (SocketChannel) key.channel();
+                    Attempt attempt = (Attempt) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            channel.finishConnect();
+                            key.interestOps(SelectionKey.OP_READ);
+                        } else if (key.isReadable()) {
+                            if (channel.read(attempt.buffer) < 0) {
+                                throw new IOException("Closed before HELLO");
+                            }
+                            if (attempt.sawNewline()) {
+                                long now = System.nanoTime();
+                                histogram.record((now - attempt.started) / 1000);
+                                lastHello = now - start;
+                                key.cancel();
+                                pending--;
+                            }
+                        }
+                    } catch (IOException e) {
+                        key.cancel();
+                        failed++;
+                        pending--;
+                    }
+                }
+            }
+            failed += pending; // Timed out.
+        } finally {
+            // Drop every connection at once, as a network blip would.
+            for (SocketChannel channel : channels) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+        }
+        return new long[]{failed, lastHello};
+    }
+
+    /**
+     * One client's connection attempt and the bytes of HELLO received so far.
+     */
+    private static class Attempt {
+        final long started;
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        Attempt(long started) {
+            this.started = started;
+        }
+
+        boolean sawNewline() {
+            for (int i = 0; i < buffer.position(); i++) {
+                if (buffer.get(i) == '\n') {
+                    return true;
+                }
+            }
+            if (!buffer.hasRemaining()) {
+                buffer.clear(); // A HELLO longer than the buffer; keep looking for its end.
+            }
+            return false;
+        }
+    }
+
+    private static void printUsageAndExit() {
+        System.err.println("\nUsage: java ReconnectStorm <host> <port> [options]");
+        System.err.println("\nOptions:");
+        System.err.println("  --clients <n>       Connections opened at once in each round (default 1000)");
+        System.err.println("  --rounds <n>        Number of storms (default 5)");
+        System.err.println("  --pause <s>         Time between storms (default 2)");
+        System.err.println("  --timeout <s>       Time to wait for every HELLO in a round (default 30)");
+        System.err.println();
+        System.exit(1);
+    }
+}
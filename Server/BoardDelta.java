@@ -0,0 +1,35 @@
+import java.util.List;
+
+/**
+ * BoardDelta - The changes to a board between a client's version and the current version.
+ *
+ * Lines are already in protocol form and describe the current state of everything that changed,
+ * so applying a delta twice, or applying one that overlaps changes the client already has, is harmless:
+ * - CLEARED - drop everything; the lines that follow rebuild the board.
+ * - NOTE <id> <x> <y> <colour> <status> <message> - a note that was added or whose pins changed.
+ * - REMOVED <id> - a note that no longer exists.
+ * - PIN <x> <y> / UNPIN <x> <y> - a pin that was placed or removed.
+ */
+public class BoardDelta {
+    private final long version;
+    private final List<String> lines;
+
+    /**
+     * Creates a new BoardDelta.
+     *
+     * @param version The board version the delta brings a client up to.
+     * @param lines Change lines in protocol form.
+     */
+    public BoardDelta(long version, List<String> lines) {
+        this.version = version;
+        this.lines = lines;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<String> getLines() {
+        return lines;
+    }
+}
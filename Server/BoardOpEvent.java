@@ -0,0 +1,35 @@
+import jdk.jfr.*;
+
+/**
+ * BoardOpEvent - Flight Recorder event for one BoardState operation.
+ *
+ * The event duration covers waiting for the board lock plus executing under it; the two phases are
+ * also recorded separately. Disabled unless a recording enables it, e.g.
+ *   jcmd <pid> JFR.start name=board settings=profile
+ */
+@Name("bboard.BoardOperation")
+@Label("Board Operation")
+@Category({"Bulletin Board"})
+@Description("A BoardState operation, split into board lock wait and hold time")
+@StackTrace(false)
+public class BoardOpEvent extends Event {
+    @Label("Board")
+    String board;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Lock Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWait;
+
+    @Label("Lock Hold")
+    @Timespan(Timespan.NANOSECONDS)
+    long hold;
+
+    @Label("Result Size")
+    int resultSize;
+
+    @Label("Board Notes")
+    int boardNotes;
+}
@@ -0,0 +1,73 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * BoardRegistry - Holds every named board hosted by this server process.
+ *
+ * Each board is an independent BoardState with its own dimensions, colours and monitor,
+ * so operations on one board never wait on another board's lock.
+ * Clients start on the default board and switch with the USE command.
+ */
+public class BoardRegistry {
+    public static final String DEFAULT_BOARD = "default";
+
+    private final Map<String, BoardState> boards; // board name -> BoardState.
+    private final String defaultBoardName;
+    private volatile ReplicationNode replication; // null when replication is disabled.
+
+    /**
+     * Creates a new registry.
+     *
+     * @param defaultBoard The board new clients are attached to.
+     */
+    public BoardRegistry(BoardState defaultBoard) {
+        this.boards = new ConcurrentHashMap<>();
+        this.defaultBoardName = defaultBoard.getName();
+        boards.put(defaultBoardName, defaultBoard);
+    }
+
+    /**
+     * Registers an additional board.
+     *
+     * @param board The board to host.
+     * @throws IllegalArgumentException if a board with the same name already exists.
+     */
+    public void addBoard(BoardState board) throws IllegalArgumentException {
+        if (boards.putIfAbsent(board.getName(), board) != null) {
+            throw new IllegalArgumentException("Board '" + board.getName() + "' is defined more than once.");
+        }
+    }
+
+    /**
+     * Looks up a board by name.
+     *
+     * @param name Board name.
+     * @return The board, or null if no board has that name.
+     */
+    public BoardState getBoard(String name) {
+        return boards.get(name);
+    }
+
+    public BoardState getDefaultBoard() {
+        return boards.get(defaultBoardName);
+    }
+
+    public ReplicationNode getReplication() {
+        return replication;
+    }
+
+    public void setReplication(ReplicationNode replication) {
+        this.replication = replication;
+    }
+
+    /**
+     * Gets all hosted boards, ordered by name.
+     *
+     * @return List of boards.
+     */
+    public List<BoardState> getBoards() {
+        List<BoardState> result = new ArrayList<>(boards.values());
+        result.sort(Comparator.comparing(BoardState::getName));
+        return result;
+    }
+}
@@ -0,0 +1,32 @@
+import java.util.List;
+
+/**
+ * BoardSnapshot - The contents of a board at a specific version.
+ *
+ * The snapshot is stored as the mutations that rebuild the board from empty:
+ * POST lines for every note in ID order, followed by one PINAT <x> <y> <id1,id2,...> line per pin
+ * naming the notes that pin holds.
+ */
+public class BoardSnapshot {
+    private final long version;
+    private final List<String> mutations;
+
+    /**
+     * Creates a new BoardSnapshot.
+     *
+     * @param version Board version the snapshot was taken at.
+     * @param mutations Mutations that rebuild the board.
+     */
+    public BoardSnapshot(long version, List<String> mutations) {
+        this.version = version;
+        this.mutations = mutations;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<String> getMutations() {
+        return mutations;
+    }
+}
@@ -1,28 +1,69 @@
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 /**
  * BoardState - Manages the bulletin board state with thread-safe operations.
  *
  * The board class manages:
- * - Note storage and retrieval.
+ * - Note storage and retrieval, through a NoteStore (object or columnar).
  * - Pin management.
  * - Pin and note validation (bounds checking, overlap detection).
  * - Atomic operations (POST, SHAKE, CLEAR).
  * - Thread-safe concurrent access using synchronized methods.
+ * - Per-operation lock wait and hold timing (OpTiming, BoardOpEvent, LockProfiler).
+ * - An ordered, versioned mutation sequence that replication followers replay.
+ * - A bounded change log of recent mutations for incremental refreshes (GET SINCE).
+ * - Optional note time-to-live, expired in batches by a NoteExpirer.
+ * - An optional memory budget, enforced by evicting the least recently posted or read unpinned notes.
+ * - Optional fork-join execution of GET scans on boards above a note-count threshold.
+ * - A spatial grid index over note positions for rectangle queries (GET region=).
  */
 public class BoardState {
+    private static final int CHANGE_LOG_CAPACITY = 10_000; // Mutations a GET SINCE can reach back over.
+
+    // Estimated heap cost of a pin (64-bit JVM, compressed references) used for the memory budget:
+    // its "x,y" String, map entry and ID array header, plus one ID per note it holds.
+    private static final long PIN_BYTES = 96;
+    private static final long PIN_NOTE_BYTES = 4;
+
+    private final String name;
     private final int width;
     private final int height;
     private final int noteWidth;
     private final int noteHeight;
     private final Set<String> validColours;
     
-    private final Map<Integer, Note> notes; // note_id -> Note.
-    private final Set<String> pins; // Set of "x,y" coordinate strings.
+    private NoteStore notes;
+    private final SpatialGrid grid; // Note positions, for region queries.
+    private final Map<String, int[]> pins; // "x,y" -> IDs of the notes the pin holds.
     private int nextNoteId;
 
+    private long version; // Incremented once per state-changing mutation.
+    private volatile boolean readOnly; // Set on replication followers.
+    private final List<MutationListener> listeners;
+    private final LockProfiler lockProfiler; // Contention statistics for this board's monitor.
+    private final ChangeLog changeLog;
+    private final List<Integer> touched; // IDs of notes changed by the mutation in progress.
+    private volatile NoteExpirer expirer; // null when notes never expire (e.g. on followers).
+    private volatile long defaultTtlSeconds; // TTL of notes posted without one, 0 = never expire.
+    private long expiredNotes; // Notes removed because their TTL ran out.
+
+    private long pinBytes; // Estimated bytes held by pins.
+    private long memoryBudget; // Estimated bytes allowed for notes and pins, 0 = unlimited.
+    private boolean evictLeastRecentlyRead; // false = evict least recently posted.
+    private long useClock; // Incremented each time a note is posted or read, for least recently read eviction.
+    private long evictedNotes; // Notes removed to stay within the memory budget.
+
+    private volatile ForkJoinPool queryPool; // null when GET always scans on the calling thread.
+    private volatile int parallelQueryThreshold; // Notes a board needs before GET scans in parallel.
+    private long parallelQueries; // GETs that were split across the query pool.
+
     /**
-     * Creates a new Board.
+     * Creates a new Board with the default name.
      * 
      * @param width Board width.
      * @param height Board height.
@@ -31,15 +72,39 @@ public class BoardState {
      * @param validColours Set of valid colour names.
      */
     public BoardState(int width, int height, int noteWidth, int noteHeight, Set<String> validColours) {
+        this(BoardRegistry.DEFAULT_BOARD, width, height, noteWidth, noteHeight, validColours);
+    }
+
+    /**
+     * Creates a new Board.
+     * 
+     * @param name Board name used by the USE command.
+     * @param width Board width.
+     * @param height Board height.
+     * @param noteWidth Fixed note width.
+     * @param noteHeight Fixed note height.
+     * @param validColours Set of valid colour names.
+     */
+    public BoardState(String name, int width, int height, int noteWidth, int noteHeight, Set<String> validColours) {
+        this.name = name;
         this.width = width;
         this.height = height;
         this.noteWidth = noteWidth;
         this.noteHeight = noteHeight;
         this.validColours = validColours;
         
-        this.notes = new HashMap<>();
-        this.pins = new HashSet<>();
+        this.notes = new ObjectNoteStore(noteWidth, noteHeight);
+        this.grid = new SpatialGrid(width, height, noteWidth, noteHeight);
+        this.pins = new HashMap<>();
         this.nextNoteId = 1;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.lockProfiler = new LockProfiler();
+        this.changeLog = new ChangeLog(CHANGE_LOG_CAPACITY);
+        this.touched = new ArrayList<>();
+    }
+
+    public String getName() {
+        return name;
     }
 
     public int getWidth() {
@@ -58,10 +123,129 @@ public class BoardState {
         return noteHeight;
     }
 
+    public long getDefaultTtlSeconds() {
+        return defaultTtlSeconds;
+    }
+
+    /**
+     * Enables note expiry.
+     *
+     * @param expirer Expirer that removes notes once their TTL has passed.
+     * @param defaultTtlSeconds TTL of notes posted without one (0 = never expire).
+     */
+    public void setExpiry(NoteExpirer expirer, long defaultTtlSeconds) {
+        this.expirer = expirer;
+        this.defaultTtlSeconds = defaultTtlSeconds;
+    }
+
+    /**
+     * Replaces the note storage engine. Only allowed while the board has no notes.
+     *
+     * @param store Empty store for this board's note dimensions.
+     * @throws IllegalStateException if the board already has notes.
+     */
+    public synchronized void setNoteStore(NoteStore store) throws IllegalStateException {
+        if (notes.size() > 0) {
+            throw new IllegalStateException("Cannot change the note store of board '" + name + "' once it has notes.");
+        }
+        this.notes = store;
+    }
+
+    public synchronized String getNoteStoreType() {
+        return notes.getType();
+    }
+
+    public synchronized long getExpiredCount() {
+        return expiredNotes;
+    }
+
+    /**
+     * Caps the estimated memory used by notes (with their spatial grid entries) and pins. When a
+     * POST would exceed the budget, unpinned notes are evicted, oldest first by the chosen policy,
+     * until the board is 10% below the budget.
+     *
+     * @param bytes Budget in estimated bytes (0 = unlimited).
+     * @param leastRecentlyRead true to evict by last read, false by posting order.
+     */
+    public synchronized void setMemoryBudget(long bytes, boolean leastRecentlyRead) {
+        this.memoryBudget = bytes;
+        this.evictLeastRecentlyRead = leastRecentlyRead;
+    }
+
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public synchronized String getEvictionPolicy() {
+        return evictLeastRecentlyRead ? "lru" : "lrp";
+    }
+
+    /**
+     * Gets the estimated memory held by the board's notes, messages, spatial grid and pins.
+     *
+     * @return Estimated bytes.
+     */
+    public synchronized long getFootprint() {
+        return footprint();
+    }
+
+    /**
+     * Lets GET split its scan across a fork-join pool once the board holds enough notes for the
+     * split to pay for itself (see the parallelQuery benchmarks for the crossover).
+     *
+     * @param pool Pool to scan with, or null to always scan on the calling thread.
+     * @param thresholdNotes Smallest note count at which GET scans in parallel.
+     */
+    public void setParallelQuery(ForkJoinPool pool, int thresholdNotes) {
+        this.queryPool = pool;
+        this.parallelQueryThreshold = thresholdNotes;
+    }
+
+    public int getParallelQueryThreshold() {
+        return queryPool == null ? 0 : parallelQueryThreshold;
+    }
+
+    public synchronized long getParallelQueryCount() {
+        return parallelQueries;
+    }
+
+    public synchronized long getEvictedCount() {
+        return evictedNotes;
+    }
+
+    public LockProfiler getLockProfiler() {
+        return lockProfiler;
+    }
+
     public Set<String> getValidColours() {
         return validColours;
     }
 
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized int getNoteCount() {
+        return notes.size();
+    }
+
+    public synchronized int getPinCount() {
+        return pins.size();
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Marks the board as read-only for clients (replication followers only apply leader mutations).
+     *
+     * @param readOnly true to reject client mutations.
+     */
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
     /**
      * Posts a new note to the board.
      * 
@@ -72,7 +256,27 @@ public class BoardState {
      * @return The ID of the newly created note.
      * @throws IllegalArgumentException if validation fails.
      */
-    public synchronized int postNote(int x, int y, String colour, String message) throws IllegalArgumentException {
+    public int postNote(int x, int y, String colour, String message) throws IllegalArgumentException {
+        return postNote(x, y, colour, message, defaultTtlSeconds);
+    }
+
+    /**
+     * Posts a new note that is removed once it has been on the board for ttlSeconds while unpinned.
+     * The TTL is ignored on boards without note expiry.
+     * 
+     * @param x X-coordinate of upper-left corner.
+     * @param y Y-coordinate of upper-left corner.
+     * @param colour Note colour.
+     * @param message Note message.
+     * @param ttlSeconds Time-to-live in seconds (0 = never expire).
+     * @return The ID of the newly created note.
+     * @throws IllegalArgumentException if validation fails.
+     */
+    public int postNote(int x, int y, String colour, String message, long ttlSeconds) throws IllegalArgumentException {
+        return withLock(LockProfiler.POST, () -> postNoteLocked(x, y, colour, message, ttlSeconds), noteId -> 1);
+    }
+
+    private int postNoteLocked(int x, int y, String colour, String message, long ttlSeconds) throws IllegalArgumentException {
         // Validate colour.
         if (!validColours.contains(colour)) {
             throw new IllegalArgumentException("COLOUR_NOT_SUPPORTED Colour '" + colour + "' is not supported.");
@@ -84,16 +288,30 @@ public class BoardState {
         }
         
         // Check for complete overlap (notes have same coordinates).
-        for (Note existingNote : notes.values()) {
-            if (existingNote.getX() == x && existingNote.getY() == y) {
-                throw new IllegalArgumentException("OVERLAP_ERROR Note completely overlaps existing note at (" + x + "," + y + ").");
-            }
+        if (notes.hasNoteAt(x, y)) {
+            throw new IllegalArgumentException("OVERLAP_ERROR Note completely overlaps existing note at (" + x + "," + y + ").");
         }
         
+        // Stay within the memory budget, once the store is known to accept the message and has
+        // the columns this note will need.
+        notes.checkMessage(message);
+        notes.reserveColumns(ttlSeconds > 0 && expirer != null, evictLeastRecentlyRead);
+        makeRoom(notes.footprintOf(message) + SpatialGrid.NOTE_BYTES);
+        
         // Create and add the note.
-        int noteId = nextNoteId++;
-        Note note = new Note(noteId, x, y, colour, message);
-        notes.put(noteId, note);
+        int noteId = nextNoteId;
+        addNote(noteId, x, y, colour, message);
+        if (evictLeastRecentlyRead) {
+            notes.setLastUsed(noteId, ++useClock);
+        }
+        recordMutation("POST " + noteId + " " + x + " " + y + " " + colour + " " + (message == null ? "" : message));
+
+        NoteExpirer currentExpirer = expirer;
+        if (ttlSeconds > 0 && currentExpirer != null) {
+            long expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds);
+            notes.setExpiresAt(noteId, expiresAt);
+            currentExpirer.schedule(this, noteId, expiresAt);
+        }
         
         return noteId;
     }
@@ -105,35 +323,27 @@ public class BoardState {
      * @param y Y-coordinate of pin.
      * @throws IllegalArgumentException if validation fails.
      */
-    public synchronized void placePin(int x, int y) throws IllegalArgumentException {
+    public void placePin(int x, int y) throws IllegalArgumentException {
+        withLock(LockProfiler.PIN, () -> placePinLocked(x, y));
+    }
+
+    private void placePinLocked(int x, int y) throws IllegalArgumentException {
         // Validate board boundaries.
         if (x < 0 || y < 0 || x >= width || y >= height) {
             throw new IllegalArgumentException("OUT_OF_BOUNDS Pin coordinate is outside board boundaries.");
         }
         
         // Check if any notes contain this coordinate.
-        boolean foundNote = false;
-        for (Note note : notes.values()) {
-            if (note.contains(x, y, noteWidth, noteHeight)) {
-                foundNote = true;
-                break;
-            }
-        }
+        int[] noteIds = notes.idsContaining(x, y);
         
         // Must pin at least one note.
-        if (!foundNote) {
+        if (noteIds.length == 0) {
             throw new IllegalArgumentException("NO_NOTE_AT_COORDINATE No note found at coordinate (" + x + "," + y + ").");
         }
         
         // Add pin globally and to all affected notes.
-        String pinKey = x + "," + y;
-        if (!pins.contains(pinKey)) {
-            pins.add(pinKey);
-            for (Note note : notes.values()) {
-                if (note.contains(x, y, noteWidth, noteHeight)) {
-                    note.addPin(x, y);
-                }
-            }
+        if (addPin(x, y, noteIds)) {
+            recordMutation("PIN " + x + " " + y);
         }
     }
 
@@ -144,7 +354,11 @@ public class BoardState {
      * @param y Y-coordinate of pin.
      * @throws IllegalArgumentException if validation fails.
      */
-    public synchronized void removePin(int x, int y) throws IllegalArgumentException {
+    public void removePin(int x, int y) throws IllegalArgumentException {
+        withLock(LockProfiler.UNPIN, () -> removePinLocked(x, y));
+    }
+
+    private void removePinLocked(int x, int y) throws IllegalArgumentException {
         // Validate board boundaries.
         if (x < 0 || y < 0 || x >= width || y >= height) {
             throw new IllegalArgumentException("OUT_OF_BOUNDS Pin coordinate is outside board boundaries.");
@@ -153,39 +367,493 @@ public class BoardState {
         String pinKey = x + "," + y;
         
         // Check if pin exists.
-        if (!pins.contains(pinKey)) {
+        if (!pins.containsKey(pinKey)) {
             throw new IllegalArgumentException("PIN_NOT_FOUND No pin exists at coordinate (" + x + "," + y + ").");
         }
         
         // Remove pin globally and from all notes.
-        pins.remove(pinKey);
-        for (Note note : notes.values()) {
-            if (note.contains(x, y, noteWidth, noteHeight)) {
-                note.removePin(x, y);
+        deletePin(x, y);
+        recordMutation("UNPIN " + x + " " + y);
+    }
+
+    /**
+     * Removes all unpinned notes from the board.
+     */
+    public void shake() {
+        withLock(LockProfiler.SHAKE, this::shakeLocked);
+    }
+
+    private void shakeLocked() {
+        if (removeUnpinnedNotes()) {
+            recordMutation("SHAKE");
+        }
+    }
+
+    /**
+     * Removes all notes and pins from the board.
+     */
+    public void clear() {
+        withLock(LockProfiler.CLEAR, this::clearLocked);
+    }
+
+    private void clearLocked() {
+        if (notes.size() > 0 || !pins.isEmpty()) {
+            removeAllNotes();
+            recordMutation("CLEAR");
+        }
+    }
+
+    /**
+     * Evicts unpinned notes, oldest first by the eviction policy, if adding `bytes` would exceed the memory budget.
+     *
+     * @throws IllegalArgumentException if the budget cannot be met without removing pinned notes.
+     */
+    private void makeRoom(long bytes) throws IllegalArgumentException {
+        long footprint = footprint();
+        if (memoryBudget <= 0 || footprint + bytes <= memoryBudget) {
+            return;
+        }
+
+        int[] candidates = notes.evictionOrder(evictLeastRecentlyRead);
+        long evictable = notes.unpinnedFootprint() + SpatialGrid.NOTE_BYTES * candidates.length;
+        if (footprint - evictable + bytes > memoryBudget) {
+            throw new IllegalArgumentException("MEMORY_BUDGET_EXCEEDED The board's memory budget of " + memoryBudget
+                    + " bytes is used up by pinned notes.");
+        }
+
+        // Evict down to 10% below the budget, so the next POSTs do not each trigger an eviction.
+        long target = Math.max(0, memoryBudget - memoryBudget / 10 - bytes);
+        StringBuilder ids = new StringBuilder();
+        int evicted = 0;
+        for (int noteId : candidates) {
+            if (footprint() <= target) {
+                break;
             }
+            removeNote(noteId);
+            ids.append(evicted++ == 0 ? "" : ",").append(noteId);
         }
+        evictedNotes += evicted;
+        recordMutation("EVICT " + ids);
+    }
+
+    private long footprint() {
+        return notes.footprint() + grid.footprint() + pinBytes;
     }
 
     /**
-     * Removes all unpinned notes from the board.
+     * Runs an operation that returns nothing while holding the board lock, with a result size of 0.
+     */
+    private void withLock(int operation, Runnable op) {
+        withLock(operation, () -> {
+            op.run();
+            return null;
+        }, result -> 0);
+    }
+
+    /**
+     * Runs an operation while holding the board lock, recording its lock wait and hold time (see
+     * finishOp). Every public operation goes through here, so its timing, lock profiling and
+     * BoardOpEvent are recorded the same way.
+     *
+     * @param operation LockProfiler operation index.
+     * @param op Operation to run under the lock.
+     * @param resultSize Gets the number of items in the operation's result, for the timing records.
+     * @return The operation's result.
      */
-    public synchronized void shake() {
-        // Remove all unpinned notes.
-        Iterator<Map.Entry<Integer, Note>> it = notes.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<Integer, Note> entry = it.next();
-            if (!entry.getValue().isPinned()) {
-                it.remove();
+    private <T> T withLock(int operation, Supplier<T> op, ToIntFunction<T> resultSize) {
+        BoardOpEvent event = new BoardOpEvent();
+        event.begin();
+        int blocker = lockProfiler.observeHolder();
+        long requested = System.nanoTime();
+        synchronized (this) {
+            long acquired = System.nanoTime();
+            lockProfiler.acquired(operation);
+            int size = 0;
+            try {
+                T result = op.get();
+                size = resultSize.applyAsInt(result);
+                return result;
+            } finally {
+                finishOp(event, operation, blocker, requested, acquired, size);
             }
         }
     }
 
     /**
-     * Removes all notes and pins from the board.
+     * Records the lock wait and hold time of a finished operation for the calling thread's OpTiming,
+     * the board's LockProfiler and, when Flight Recorder is recording it, as a BoardOpEvent.
+     * Called while still holding the lock.
      */
-    public synchronized void clear() {
+    private void finishOp(BoardOpEvent event, int operation, int blocker, long requested, long acquired, int resultSize) {
+        long released = System.nanoTime();
+        OpTiming.current().record(acquired - requested, released - acquired, resultSize, notes.size());
+        lockProfiler.released(operation, blocker, acquired - requested, released - acquired);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.board = name;
+            event.operation = LockProfiler.OPERATIONS.get(operation);
+            event.lockWait = acquired - requested;
+            event.hold = released - acquired;
+            event.resultSize = resultSize;
+            event.boardNotes = notes.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Removes notes whose TTL has passed. Notes that no longer exist, are pinned, or have not
+     * expired yet are skipped. Called by the NoteExpirer with small batches.
+     *
+     * @param noteIds IDs of the notes that came due.
+     * @return Number of notes removed.
+     */
+    public int expireNotes(int[] noteIds) {
+        return withLock(LockProfiler.EXPIRE, () -> expireNotesLocked(noteIds, System.nanoTime()), removed -> removed);
+    }
+
+    private int expireNotesLocked(int[] noteIds, long now) {
+        StringBuilder ids = new StringBuilder();
+        int removed = 0;
+        for (int noteId : noteIds) {
+            Note note = notes.get(noteId);
+            if (note == null || note.isPinned() || !note.isExpired(now)) {
+                continue;
+            }
+            removeNote(noteId);
+            ids.append(removed++ == 0 ? "" : ",").append(noteId);
+        }
+        if (removed > 0) {
+            expiredNotes += removed;
+            recordMutation("EXPIRE " + ids);
+        }
+        return removed;
+    }
+
+    /**
+     * Registers a listener for future mutations and returns the current state as a replayable snapshot.
+     * Both happen under the board lock, so the listener sees every mutation after the snapshot version.
+     *
+     * @param listener Listener to register.
+     * @return Snapshot of the board at the moment of registration.
+     */
+    public synchronized BoardSnapshot subscribe(MutationListener listener) {
+        listeners.add(listener);
+        return snapshot();
+    }
+
+    /**
+     * Removes a previously registered mutation listener.
+     *
+     * @param listener Listener to remove.
+     */
+    public void unsubscribe(MutationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Captures the board as the list of mutations that rebuild it from empty.
+     *
+     * @return Snapshot of notes and pins.
+     */
+    public synchronized BoardSnapshot snapshot() {
+        List<String> mutations = new ArrayList<>();
+        for (int noteId : notes.ids()) {
+            Note note = notes.get(noteId);
+            mutations.add("POST " + note.getId() + " " + note.getX() + " " + note.getY() + " "
+                    + note.getColour() + " " + note.getMessage());
+        }
+        // A pin only holds the notes that existed when it was placed, so list them explicitly.
+        for (Map.Entry<String, int[]> pin : pins.entrySet()) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("PINAT ").append(pin.getKey().replace(',', ' ')).append(" ");
+            int pinned = 0;
+            for (int noteId : pin.getValue()) {
+                if (notes.contains(noteId)) {
+                    sb.append(pinned++ == 0 ? "" : ",").append(noteId);
+                }
+            }
+            if (pinned == 0) {
+                sb.append("-");
+            }
+            mutations.add(sb.toString());
+        }
+        return new BoardSnapshot(version, mutations);
+    }
+
+    /**
+     * Replaces the board contents with a snapshot received from a replication leader.
+     * Listeners are not notified; the board simply jumps to the snapshot version.
+     *
+     * @param snapshot Snapshot to load.
+     */
+    public synchronized void loadSnapshot(BoardSnapshot snapshot) {
+        removeAllNotes();
+        for (String mutation : snapshot.getMutations()) {
+            replay(mutation);
+        }
+        version = snapshot.getVersion();
+        touched.clear();
+        changeLog.reset(version);
+    }
+
+    /**
+     * Applies a mutation received from a replication leader.
+     * Mutations at or below the current version have already been applied and are ignored.
+     *
+     * @param mutationVersion Version the leader assigned to the mutation.
+     * @param mutation Mutation in the form produced by a MutationListener.
+     * @throws IllegalArgumentException if the mutation is malformed.
+     */
+    public synchronized void applyMutation(long mutationVersion, String mutation) throws IllegalArgumentException {
+        if (mutationVersion <= version) {
+            return;
+        }
+        replay(mutation);
+        recordMutation(mutation, mutationVersion);
+    }
+
+    /**
+     * Replays one mutation without validation or notification.
+     */
+    private void replay(String mutation) {
+        String[] parts = mutation.split(" ", 6);
+        switch (parts[0]) {
+            case "POST":
+                if (parts.length < 5) {
+                    throw new IllegalArgumentException("INVALID_FORMAT Malformed replicated POST: " + mutation);
+                }
+                addNote(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]),
+                        parts[4], parts.length > 5 ? parts[5] : "");
+                break;
+            case "PIN":
+                int x = Integer.parseInt(parts[1]);
+                int y = Integer.parseInt(parts[2]);
+                addPin(x, y, notes.idsContaining(x, y));
+                break;
+            case "PINAT":
+                // Snapshot form: PINAT <x> <y> <id1,id2,...|->
+                String[] ids = parts[3].equals("-") ? new String[0] : parts[3].split(",");
+                int[] noteIds = new int[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    noteIds[i] = Integer.parseInt(ids[i]);
+                }
+                addPin(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), noteIds);
+                break;
+            case "UNPIN":
+                deletePin(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                break;
+            case "SHAKE":
+                removeUnpinnedNotes();
+                break;
+            case "CLEAR":
+                removeAllNotes();
+                break;
+            case "EXPIRE":
+            case "EVICT":
+                // EXPIRE <id1,id2,...> or EVICT <id1,id2,...>
+                for (String id : parts[1].split(",")) {
+                    if (removeNote(Integer.parseInt(id))) {
+                        if (parts[0].equals("EXPIRE")) {
+                            expiredNotes++;
+                        } else {
+                            evictedNotes++;
+                        }
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("INVALID_FORMAT Unknown replicated mutation: " + mutation);
+        }
+    }
+
+    /**
+     * Stores a note with the given ID and advances the ID counter past it.
+     */
+    private void addNote(int noteId, int x, int y, String colour, String message) {
+        notes.add(noteId, x, y, colour, message);
+        grid.add(noteId, x, y);
+        touched.add(noteId);
+        nextNoteId = Math.max(nextNoteId, noteId + 1);
+    }
+
+    /**
+     * Adds a pin to the board and to the given notes.
+     *
+     * @param noteIds IDs of the notes under the pin.
+     * @return true if the pin did not already exist.
+     */
+    private boolean addPin(int x, int y, int[] noteIds) {
+        String pinKey = x + "," + y;
+        if (pins.containsKey(pinKey)) {
+            return false;
+        }
+        pins.put(pinKey, noteIds);
+        pinBytes += PIN_BYTES + PIN_NOTE_BYTES * noteIds.length;
+        for (int noteId : noteIds) {
+            notes.addPin(noteId);
+            touched.add(noteId);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a pin from the board and from the notes it holds.
+     */
+    private void deletePin(int x, int y) {
+        int[] noteIds = pins.remove(x + "," + y);
+        if (noteIds == null) {
+            return;
+        }
+        pinBytes -= PIN_BYTES + PIN_NOTE_BYTES * noteIds.length;
+        NoteExpirer currentExpirer = expirer;
+        for (int noteId : noteIds) {
+            int remaining = notes.removePin(noteId);
+            if (remaining < 0) {
+                continue; // Removed since the pin was placed.
+            }
+            touched.add(noteId);
+            // A note that outlived its TTL while pinned expires as soon as it is unpinned.
+            if (currentExpirer != null && remaining == 0) {
+                Note note = notes.get(noteId);
+                if (note.isExpired(System.nanoTime())) {
+                    currentExpirer.schedule(this, noteId, note.getExpiresAt());
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes one note, keeping the change log up to date.
+     *
+     * @return true if there was a note with that ID.
+     */
+    private boolean removeNote(int noteId) {
+        Note note = notes.get(noteId);
+        if (note == null) {
+            return false;
+        }
+        notes.remove(noteId);
+        grid.remove(noteId, note.getX(), note.getY());
+        touched.add(noteId);
+        return true;
+    }
+
+    /**
+     * Removes every note and pin.
+     */
+    private void removeAllNotes() {
         notes.clear();
+        grid.clear();
         pins.clear();
+        pinBytes = 0;
+    }
+
+    /**
+     * Removes all unpinned notes.
+     *
+     * @return true if at least one note was removed.
+     */
+    private boolean removeUnpinnedNotes() {
+        int[] removed = notes.removeUnpinned();
+        if (removed.length > 0) {
+            grid.retainAll(notes::contains);
+        }
+        for (int noteId : removed) {
+            touched.add(noteId);
+        }
+        return removed.length > 0;
+    }
+
+    /**
+     * Assigns the next version to a mutation and notifies listeners.
+     */
+    private void recordMutation(String mutation) {
+        recordMutation(mutation, version + 1);
+    }
+
+    private void recordMutation(String mutation, long mutationVersion) {
+        version = mutationVersion;
+        logChange(mutation, mutationVersion);
+        notifyListeners(mutationVersion, mutation);
+    }
+
+    /**
+     * Adds a mutation and the notes it touched to the change log.
+     */
+    private void logChange(String mutation, long mutationVersion) {
+        int[] noteIds = new int[touched.size()];
+        for (int i = 0; i < noteIds.length; i++) {
+            noteIds[i] = touched.get(i);
+        }
+        touched.clear();
+
+        String pin = null;
+        if (mutation.startsWith("PIN ") || mutation.startsWith("UNPIN ")) {
+            String[] parts = mutation.split(" ");
+            pin = parts[1] + "," + parts[2];
+        }
+        changeLog.add(mutationVersion, mutation.equals("CLEAR"), noteIds, pin);
+    }
+
+    private void notifyListeners(long mutationVersion, String mutation) {
+        for (MutationListener listener : listeners) {
+            listener.onMutation(this, mutationVersion, mutation);
+        }
+    }
+
+    /**
+     * Gets everything that changed since a version, from the change log.
+     *
+     * @param since Version the client already has.
+     * @return The changes up to the current version, or null if the change log no longer reaches back to `since`.
+     * @throws IllegalArgumentException if `since` is newer than the board.
+     */
+    public BoardDelta changesSince(long since) throws IllegalArgumentException {
+        return withLock(LockProfiler.GET_SINCE, () -> changesSinceLocked(since),
+                delta -> delta == null ? 0 : delta.getLines().size());
+    }
+
+    private BoardDelta changesSinceLocked(long since) throws IllegalArgumentException {
+        if (since < 0 || since > version) {
+            throw new IllegalArgumentException("INVALID_VERSION Version " + since + " is not between 0 and the board version " + version + ".");
+        }
+        List<ChangeLog.Change> changes = changeLog.since(since);
+        if (changes == null) {
+            return null;
+        }
+
+        List<String> lines = new ArrayList<>();
+        boolean cleared = false;
+        Set<Integer> noteIds = new TreeSet<>();
+        Set<String> pinKeys = new LinkedHashSet<>();
+        for (ChangeLog.Change change : changes) {
+            if (change.clear) {
+                // Everything still on the board was added after the latest CLEAR.
+                cleared = true;
+                noteIds.clear();
+                pinKeys.clear();
+                continue;
+            }
+            for (int id : change.noteIds) {
+                noteIds.add(id);
+            }
+            if (change.pin != null) {
+                pinKeys.add(change.pin);
+            }
+        }
+
+        if (cleared) {
+            lines.add("CLEARED");
+        }
+        for (int id : noteIds) {
+            Note note = notes.get(id);
+            lines.add(note != null ? note.toProtocolString() : "REMOVED " + id);
+        }
+        for (String pinKey : pinKeys) {
+            lines.add((pins.containsKey(pinKey) ? "PIN " : "UNPIN ") + pinKey.replace(',', ' '));
+        }
+        return new BoardDelta(version, lines);
     }
 
     /**
@@ -197,36 +865,79 @@ public class BoardState {
      * @param refersTo Optional substring filter (null = no filter).
      * @return List of matching notes.
      */
-    public synchronized List<Note> queryNotes(String colourFilter, int containsX, int containsY, String refersTo) {
-        List<Note> results = new ArrayList<>();
-        
-        for (Note note : notes.values()) {
-            boolean matches = true;
-            
-            // Apply colour filter.
-            if (colourFilter != null && !note.getColour().equals(colourFilter)) {
-                matches = false;
-            }
-            
-            // Apply contains filter.
-            if (matches && containsX != -1 && containsY != -1) {
-                if (!note.contains(containsX, containsY, noteWidth, noteHeight)) {
-                    matches = false;
-                }
+    public List<Note> queryNotes(String colourFilter, int containsX, int containsY, String refersTo) {
+        return queryNotes(colourFilter, containsX, containsY, refersTo, null);
+    }
+
+    /**
+     * Queries notes based on filter criteria, optionally limited to the notes intersecting a rectangle.
+     * A region is answered from the spatial grid, so only the notes near it are examined.
+     *
+     * @param colourFilter Optional colour filter (null = no filter).
+     * @param containsX X-coordinate for contains filter (-1 = no filter).
+     * @param containsY Y-coordinate for contains filter (-1 = no filter).
+     * @param refersTo Optional substring filter (null = no filter).
+     * @param region Inclusive rectangle {x1, y1, x2, y2} notes must intersect (null = no filter).
+     * @return List of matching notes.
+     */
+    public List<Note> queryNotes(String colourFilter, int containsX, int containsY, String refersTo, int[] region) {
+        return withLock(LockProfiler.GET, () -> queryNotesLocked(colourFilter, containsX, containsY, refersTo, region),
+                List::size);
+    }
+
+    private List<Note> queryNotesLocked(String colourFilter, int containsX, int containsY, String refersTo,
+            int[] region) {
+        List<Note> results;
+        if (region != null) {
+            int[] candidates = grid.query(region[0], region[1], region[2], region[3]);
+            results = notes.select(candidates, colourFilter, containsX, containsY, refersTo);
+        } else {
+            ForkJoinPool pool = queryPool;
+            if (pool != null && notes.size() >= parallelQueryThreshold) {
+                parallelQueries++;
+            } else {
+                pool = null;
             }
-            
-            // Apply refersTo filter.
-            if (matches && refersTo != null) {
-                if (!note.getMessage().contains(refersTo)) {
-                    matches = false;
-                }
+            results = notes.query(colourFilter, containsX, containsY, refersTo, pool);
+        }
+        if (evictLeastRecentlyRead) {
+            for (Note note : results) {
+                notes.setLastUsed(note.getId(), ++useClock);
             }
-            
-            if (matches) {
-                results.add(note);
+        }
+        return results;
+    }
+
+    /**
+     * Finds the notes nearest to a point, by an expanding search of the spatial grid around it.
+     * Distance is measured from the point to the nearest part of each note, so notes containing the
+     * point come first; ties go to the lower ID.
+     *
+     * @param x X-coordinate of the point.
+     * @param y Y-coordinate of the point.
+     * @param k Maximum number of notes to return.
+     * @param colourFilter Optional colour filter (null = no filter).
+     * @return Up to k notes, nearest first.
+     * @throws IllegalArgumentException if the point is outside the board.
+     */
+    public List<Note> nearestNotes(int x, int y, int k, String colourFilter) throws IllegalArgumentException {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            throw new IllegalArgumentException("OUT_OF_BOUNDS Point is outside board boundaries.");
+        }
+        return withLock(LockProfiler.GET, () -> nearestNotesLocked(x, y, k, colourFilter), List::size);
+    }
+
+    private List<Note> nearestNotesLocked(int x, int y, int k, String colourFilter) {
+        if (colourFilter != null && !validColours.contains(colourFilter)) {
+            return new ArrayList<>(); // No note can match, so do not search the whole grid for one.
+        }
+        int[] ids = grid.nearest(x, y, k, colourFilter == null ? null : id -> colourFilter.equals(notes.colourOf(id)));
+        List<Note> results = notes.select(ids, null, -1, -1, null);
+        if (evictLeastRecentlyRead) {
+            for (Note note : results) {
+                notes.setLastUsed(note.getId(), ++useClock);
             }
         }
-        
         return results;
     }
 
@@ -235,9 +946,13 @@ public class BoardState {
      * 
      * @return List of pin coordinate pairs [x, y].
      */
-    public synchronized List<int[]> getPins() {
+    public List<int[]> getPins() {
+        return withLock(LockProfiler.GET_PINS, this::getPinsLocked, List::size);
+    }
+
+    private List<int[]> getPinsLocked() {
         List<int[]> result = new ArrayList<>();
-        for (String pinKey : pins) {
+        for (String pinKey : pins.keySet()) {
             String[] parts = pinKey.split(",");
             int x = Integer.parseInt(parts[0]);
             int y = Integer.parseInt(parts[1]);
@@ -1,6 +1,11 @@
 import java.io.*;
 import java.net.*;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Bulletin Board Server
@@ -12,15 +17,31 @@ import java.util.*;
  * 
  * Example:
  *   java BulletinBoardServer 4554 200 100 20 10 red white green yellow
+ *
+ * Additional named boards can be hosted in the same process:
+ *   java BulletinBoardServer 4554 200 100 20 10 red white --board wall 800 600 40 20 blue,yellow
+ *
+ * Reads can be scaled out with a replication leader and read-only followers:
+ *   java BulletinBoardServer 4554 200 100 20 10 red white --replicate 5554
+ *   java BulletinBoardServer 4555 200 100 20 10 red white --follow 127.0.0.1:5554
  * 
  * The server:
  * - Listens on the specified port for client connections.
  * - Spawns a new thread for each connected client.
- * - Maintains a shared, synchronized bulletin board state.
+ * - Maintains shared, synchronized bulletin board states (one lock per board).
  * - Supports atomic operations (POST, SHAKE, CLEAR).
  * - Never crashes due to client errors.
  */
 public class BulletinBoardServer {
+    private static final int SLOW_LOG_ENTRIES = 256; // Slow requests kept in memory for SLOWLOG.
+    private static final long SLOW_LOG_FILE_BYTES = 10 * 1024 * 1024; // Slow log file size before rolling over.
+    private static final long TIMER_TICK_MILLIS = 100; // Resolution of connection timeouts.
+    private static final int TIMER_WHEEL_SIZE = 512; // Timing wheel buckets (one rotation = 51.2 seconds).
+    private static final long EXPIRY_TICK_MILLIS = 1000; // Resolution of note TTLs.
+    private static final int DEFAULT_PARALLEL_QUERY_THRESHOLD = 100_000; // Notes; below this a sequential scan is as fast.
+    private static final int DEFAULT_COMPRESS_THRESHOLD = 8192; // Bytes; smaller responses gain little from compression.
+    private static final int MAX_DEFAULT_ACCEPTORS = 4; // Default acceptor threads, at most one per core.
+    private static final int ACCEPT_BACKLOG = 1024; // Pending connections per listening socket (the kernel may cap it).
 
     public static void main(String[] args) {
         // Validate command-line arguments.
@@ -36,59 +57,246 @@ public class BulletinBoardServer {
                 System.exit(1);
             }
 
-            // Parse board dimensions.
-            int boardWidth = Integer.parseInt(args[1]);
-            if (boardWidth < 1) {
-                System.err.println("Error: 'Board Width' must be at least 1.");
-                System.exit(1);
+            // Options start at the first "--" argument; everything before it is the default board.
+            int optionStart = 5;
+            while (optionStart < args.length && !args[optionStart].startsWith("--")) {
+                optionStart++;
             }
 
-            int boardHeight = Integer.parseInt(args[2]);
-            if (boardHeight < 1) {
-                System.err.println("Error: 'Board Height' must be at least 1.");
-                System.exit(1);
+            // Create the default board.
+            List<String> colours = Arrays.asList(args).subList(5, optionStart);
+            BoardState board = createBoard(BoardRegistry.DEFAULT_BOARD, args[1], args[2], args[3], args[4], colours);
+            BoardRegistry registry = new BoardRegistry(board);
+
+            // Parse options.
+            int replicationPort = 0;
+            String followTarget = null;
+            int metricsPort = 0;
+            long slowThresholdMillis = 100;
+            String slowLogFile = null;
+            boolean trace = true;
+            long idleTimeoutSeconds = 0;
+            long readTimeoutSeconds = 30;
+            long noteTtlSeconds = 0;
+            long memoryBudget = 0;
+            boolean evictLeastRecentlyRead = false;
+            boolean columnarStore = false;
+            boolean offHeapMessages = false;
+            String scanKernelName = "auto";
+            int parallelQueryThreshold = DEFAULT_PARALLEL_QUERY_THRESHOLD;
+            int compressThreshold = DEFAULT_COMPRESS_THRESHOLD;
+            int acceptors = Math.min(MAX_DEFAULT_ACCEPTORS, Runtime.getRuntime().availableProcessors());
+            double[] connectionLimit = {0, 0};
+            double[] addressLimit = {0, 0};
+            int i = optionStart;
+            while (i < args.length) {
+                String option = args[i];
+                if (option.equals("--board")) {
+                    // --board <name> <board_width> <board_height> <note_width> <note_height> <colour1,...,colourN>
+                    if (i + 6 >= args.length) {
+                        System.err.println("Error: --board requires a name, four dimensions and a comma-separated colour list.");
+                        System.exit(1);
+                    }
+                    List<String> boardColours = Arrays.asList(args[i + 6].split(","));
+                    registry.addBoard(createBoard(args[i + 1], args[i + 2], args[i + 3], args[i + 4], args[i + 5], boardColours));
+                    i += 7;
+                } else if (option.equals("--replicate") && i + 1 < args.length) {
+                    replicationPort = Integer.parseInt(args[i + 1]);
+                    if (replicationPort < 1 || replicationPort > 65535 || replicationPort == port) {
+                        System.err.println("Error: Replication port must be between 1 and 65535 and differ from the client port.");
+                        System.exit(1);
+                    }
+                    i += 2;
+                } else if (option.equals("--metrics-port") && i + 1 < args.length) {
+                    metricsPort = Integer.parseInt(args[i + 1]);
+                    if (metricsPort < 1 || metricsPort > 65535 || metricsPort == port) {
+                        System.err.println("Error: Metrics port must be between 1 and 65535 and differ from the client port.");
+                        System.exit(1);
+                    }
+                    i += 2;
+                } else if (option.equals("--slow-threshold-ms") && i + 1 < args.length) {
+                    slowThresholdMillis = Long.parseLong(args[i + 1]);
+                    if (slowThresholdMillis < 0) {
+                        System.err.println("Error: Slow request threshold cannot be negative.");
+                        System.exit(1);
+                    }
+                    i += 2;
+                } else if (option.equals("--slow-log") && i + 1 < args.length) {
+                    slowLogFile = args[i + 1];
+                    i += 2;
+                } else if (option.equals("--idle-timeout") && i + 1 < args.length) {
+                    idleTimeoutSeconds = Long.parseLong(args[i + 1]);
+                    if (idleTimeoutSeconds < 0) {
+                        System.err.println("Error: Idle timeout cannot be negative.");
+                        System.exit(1);
+                    }
+                    i += 2;
+                } else if (option.equals("--read-timeout") && i + 1 < args.length) {
+                    readTimeoutSeconds = Long.parseLong(args[i + 1]);
+                    if (readTimeoutSeconds < 0) {
+                        System.err.println("Error: Read timeout cannot be negative.");
+                        System.exit(1);
+                    }
+                    i += 2;
+                } else if ((option.equals("--rate-limit") || option.equals("--address-rate-limit")) && i + 2 < args.length) {
+                    double[] limit = option.equals("--rate-limit") ? connectionLimit : addressLimit;
+                    limit[0] = Double.parseDouble(args[i + 1]);
+                    limit[1] = Double.parseDouble(args[i + 2]);
+                    if (limit[0] < 0 || (limit[0] > 0 && limit[1] < RateLimiter.EXPENSIVE_COST)) {
+                        System.err.println("Error: " + option + " needs a non-negative rate and a burst of at least "
+                                + (int) RateLimiter.EXPENSIVE_COST + ".");
+                        System.exit(1);
+                    }
+                    i += 3;
+                } else if (option.equals("--note-ttl") && i + 1 < args.length) {
+                    noteTtlSeconds = Long.parseLong(args[i + 1]);
+                    if (noteTtlSeconds < 0) {
+                        System.err.println("Error: Note TTL cannot be negative.");
+                        System.exit(1);
+                    }
+                    i += 2;
+                } else if (option.equals("--memory-budget") && i + 1 < args.length) {
+                    memoryBudget = parseBytes(args[i + 1]);
+                    i += 2;
+                } else if (option.equals("--eviction") && i + 1 < args.length) {
+                    if (!args[i + 1].equals("lrp") && !args[i + 1].equals("lru")) {
+                        System.err.println("Error: --eviction must be 'lrp' (least recently posted) or 'lru' (least recently read).");
+                        System.exit(1);
+                    }
+                    evictLeastRecentlyRead = args[i + 1].equals("lru");
+                    i += 2;
+                } else if (option.equals("--store") && i + 1 < args.length) {
+                    if (!args[i + 1].equals("object") && !args[i + 1].equals("columnar")) {
+                        System.err.println("Error: --store must be 'object' or 'columnar'.");
+                        System.exit(1);
+                    }
+                    columnarStore = args[i + 1].equals("columnar");
+                    i += 2;
+                } else if (option.equals("--parallel-query") && i + 1 < args.length) {
+                    parallelQueryThreshold = Integer.parseInt(args[i + 1]);
+                    if (parallelQueryThreshold < 0) {
+                        System.err.println("Error: --parallel-query threshold cannot be negative.");
+                        System.exit(1);
+                    }
+                    i += 2;
+                } else if (option.equals("--acceptors") && i + 1 < args.length) {
+                    acceptors = Integer.parseInt(args[i + 1]);
+                    if (acceptors < 1) {
+                        System.err.println("Error: --acceptors must be at least 1.");
+                        System.exit(1);
+                    }
+                    i += 2;
+                } else if (option.equals("--compress-threshold") && i + 1 < args.length) {
+                    compressThreshold = Integer.parseInt(args[i + 1]);
+                    if (compressThreshold < 0) {
+                        System.err.println("Error: --compress-threshold cannot be negative.");
+                        System.exit(1);
+                    }
+                    i += 2;
+                } else if (option.equals("--scan-kernel") && i + 1 < args.length) {
+                    scanKernelName = args[i + 1];
+                    i += 2;
+                } else if (option.equals("--offheap-messages")) {
+                    offHeapMessages = true;
+                    i += 1;
+                } else if (option.equals("--quiet")) {
+                    trace = false;
+                    i += 1;
+                } else if (option.equals("--follow") && i + 1 < args.length) {
+                    followTarget = args[i + 1];
+                    if (followTarget.lastIndexOf(':') < 1) {
+                        System.err.println("Error: --follow requires <leader_host>:<replication_port>.");
+                        System.exit(1);
+                    }
+                    i += 2;
+                } else {
+                    System.err.println("Error: Unknown option '" + option + "'.");
+                    printUsageAndExit();
+                }
             }
 
-            // Parse note dimensions.
-            int noteWidth = Integer.parseInt(args[3]);
-            if (noteWidth < 1) {
-                System.err.println("Error: 'Note Width' must be at least 1.");
+            if (offHeapMessages && !columnarStore) {
+                System.err.println("Error: --offheap-messages requires --store columnar.");
                 System.exit(1);
             }
 
-            int noteHeight = Integer.parseInt(args[4]);
-            if (noteHeight < 1) {
-                System.err.println("Error: 'Note Height' must be at least 1.");
+            if (replicationPort != 0 && followTarget != null) {
+                System.err.println("Error: A server cannot be both a replication leader and a follower.");
                 System.exit(1);
             }
 
-            // Parse colours.
-            Set<String> colours = new HashSet<>();
-            for (int i = 5; i < args.length; i++) {
-                colours.add(args[i]);
+            // Print configuration.
+            System.out.println("Server starting on port " + port);
+            for (BoardState hosted : registry.getBoards()) {
+                System.out.println("Board '" + hosted.getName() + "': " + hosted.getWidth() + "x" + hosted.getHeight()
+                        + ", Notes: " + hosted.getNoteWidth() + "x" + hosted.getNoteHeight()
+                        + ", Colours: " + hosted.getValidColours());
             }
 
-            if (colours.size() < 1) {
-                System.err.println("Error: At least one colour must be specified.");
-                System.exit(1);
+            if (columnarStore) {
+                ScanKernel kernel;
+                try {
+                    kernel = ScanKernel.load(scanKernelName);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Error: " + e.getMessage() + " Use --scan-kernel auto, scalar or vector.");
+                    System.exit(1);
+                    return;
+                }
+                System.out.println("Note store: columnar, scan kernel: " + kernel.getName());
+                for (BoardState hosted : registry.getBoards()) {
+                    hosted.setNoteStore(new ColumnarNoteStore(hosted.getNoteWidth(), hosted.getNoteHeight(),
+                            hosted.getValidColours(), offHeapMessages, kernel));
+                }
             }
 
-            // Validate note fits on board.
-            if (noteWidth > boardWidth || noteHeight > boardHeight) {
-                System.err.println("Error: Note dimensions must fit within board dimensions.");
-                System.exit(1);
+            for (BoardState hosted : registry.getBoards()) {
+                hosted.setMemoryBudget(memoryBudget, evictLeastRecentlyRead);
             }
 
-            // Create the shared board.
-            BoardState board = new BoardState(boardWidth, boardHeight, noteWidth, noteHeight, colours);
+            // One pool shared by all boards; splitting a scan is pointless with a single core.
+            if (parallelQueryThreshold > 0 && Runtime.getRuntime().availableProcessors() > 1) {
+                ForkJoinPool queryPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                for (BoardState hosted : registry.getBoards()) {
+                    hosted.setParallelQuery(queryPool, parallelQueryThreshold);
+                }
+            }
 
-            // Print configuration.
-            System.out.println("Server starting on port " + port);
-            System.out.println("Board: " + boardWidth + "x" + boardHeight + ", Notes: " + noteWidth + "x" + noteHeight);
-            System.out.println("Colours: " + colours);
+            // Followers remove notes when the leader's EXPIRE mutations arrive, not on their own clock.
+            if (followTarget == null) {
+                NoteExpirer expirer = new NoteExpirer(EXPIRY_TICK_MILLIS);
+                for (BoardState hosted : registry.getBoards()) {
+                    hosted.setExpiry(expirer, noteTtlSeconds);
+                }
+            }
+
+            // Start replication before accepting clients.
+            if (replicationPort != 0) {
+                ReplicationLeader leader = new ReplicationLeader(replicationPort, registry);
+                leader.start();
+                registry.setReplication(leader);
+            } else if (followTarget != null) {
+                int separator = followTarget.lastIndexOf(':');
+                ReplicationFollower follower = new ReplicationFollower(followTarget.substring(0, separator),
+                        Integer.parseInt(followTarget.substring(separator + 1)), registry);
+                follower.start();
+                registry.setReplication(follower);
+            }
+
+            // Start the optional metrics endpoint.
+            ServerMetrics metrics = new ServerMetrics();
+            if (metricsPort != 0) {
+                new MetricsHttpServer(metricsPort, registry, metrics).start();
+            }
+
+            SlowRequestLog slowLog = new SlowRequestLog(slowThresholdMillis, SLOW_LOG_ENTRIES,
+                    slowLogFile == null ? null : Paths.get(slowLogFile), SLOW_LOG_FILE_BYTES);
 
             // Start the server.
-            startServer(port, board);
+            TimingWheel timer = new TimingWheel(TIMER_TICK_MILLIS, TIMER_WHEEL_SIZE);
+            RateLimiter rateLimiter = new RateLimiter(connectionLimit[0], connectionLimit[1],
+                    addressLimit[0], addressLimit[1], timer);
+            startServer(port, acceptors, new ServerContext(registry, metrics, slowLog, trace,
+                    timer, idleTimeoutSeconds * 1000, readTimeoutSeconds * 1000, rateLimiter, compressThreshold));
 
         } catch (IllegalArgumentException e) {
             System.err.println("Error: " + e.getMessage());
@@ -102,50 +310,174 @@ public class BulletinBoardServer {
 
     /**
      * Starts the server and listens for client connections.
-     * Creates a new thread for each client that connects.
+     *
+     * Several acceptor threads take connections off the listening socket and hand each one to a
+     * pool of handler threads, so a reconnect storm is drained in parallel and an acceptor never
+     * waits for a thread to be created. Where the platform supports SO_REUSEPORT, each acceptor
+     * has its own listening socket and the kernel spreads new connections across them; otherwise
+     * the acceptors share one socket. Handler threads are reused after their client disconnects.
      */
-    private static void startServer(int port, BoardState board) throws IOException {
-        ServerSocket serverSocket = null;
-        int clientCounter = 0;
+    private static void startServer(int port, int acceptors, ServerContext context) throws IOException {
+        List<ServerSocket> serverSockets = new ArrayList<>();
+        AtomicInteger clientCounter = new AtomicInteger();
 
         try {
-            serverSocket = new ServerSocket(port);
+            boolean reusePort = acceptors > 1 && supportsReusePort();
+            for (int i = 0; i < (reusePort ? acceptors : 1); i++) {
+                ServerSocket serverSocket = new ServerSocket();
+                if (reusePort) {
+                    serverSocket.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+                }
+                serverSocket.bind(new InetSocketAddress(port), ACCEPT_BACKLOG);
+                serverSockets.add(serverSocket);
+            }
             System.out.println("\nServer started successfully.");
-            System.out.println("Listening on port " + port);
+            System.out.println("Listening on port " + port + " with " + acceptors + " acceptor thread(s)"
+                    + (reusePort ? ", one SO_REUSEPORT socket each" : acceptors > 1 ? " sharing one socket" : ""));
             System.out.println("Waiting for client connections...\n");
 
-            // Accept client connections in a loop.
-            while (true) {
-                try {
-                    Socket clientSocket = serverSocket.accept();
-                    clientCounter++;
-                    
-                    // Create and start a new thread for this client.
-                    ClientConnection handler = new ClientConnection(clientSocket, board, clientCounter);
-                    Thread thread = new Thread(handler);
-                    thread.start();
-                    
-                } catch (IOException e) {
-                    System.err.println("Error accepting client connection: " + e.getMessage());
-                    // Continue accepting other connections.
-                }
+            AtomicInteger handlerCounter = new AtomicInteger();
+            ExecutorService handlers = Executors.newCachedThreadPool(
+                    runnable -> new Thread(runnable, "client-handler-" + handlerCounter.incrementAndGet()));
+
+            // The calling thread runs the last acceptor.
+            for (int i = 0; i < acceptors - 1; i++) {
+                ServerSocket serverSocket = serverSockets.get(reusePort ? i : 0);
+                Thread acceptor = new Thread(() -> acceptLoop(serverSocket, handlers, context, clientCounter), "acceptor-" + i);
+                acceptor.start();
             }
+            acceptLoop(serverSockets.get(serverSockets.size() - 1), handlers, context, clientCounter);
 
         } finally {
-            if (serverSocket != null && !serverSocket.isClosed()) {
-                serverSocket.close();
-                System.out.println("Server socket closed.");
+            for (ServerSocket serverSocket : serverSockets) {
+                if (!serverSocket.isClosed()) {
+                    serverSocket.close();
+                    System.out.println("Server socket closed.");
+                }
             }
         }
     }
 
+    private static boolean supportsReusePort() throws IOException {
+        try (ServerSocket probe = new ServerSocket()) {
+            return probe.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+        }
+    }
 
+    /**
+     * Accepts client connections from one listening socket until it is closed, handing each to a handler thread.
+     */
+    private static void acceptLoop(ServerSocket serverSocket, ExecutorService handlers, ServerContext context,
+                                   AtomicInteger clientCounter) {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket clientSocket = serverSocket.accept();
+                handlers.execute(new ClientConnection(clientSocket, context, clientCounter.incrementAndGet()));
+            } catch (IOException e) {
+                System.err.println("Error accepting client connection: " + e.getMessage());
+                // Continue accepting other connections.
+            }
+        }
+    }
+
+    /**
+     * Parses a byte count with an optional k, m or g suffix (powers of 1024).
+     *
+     * @param value Byte count argument.
+     * @return Number of bytes.
+     * @throws NumberFormatException if the value is not a non-negative number, or does not fit in a long.
+     */
+    private static long parseBytes(String value) {
+        String digits = value.toLowerCase();
+        long multiplier = 1;
+        if (digits.endsWith("k")) {
+            multiplier = 1024;
+        } else if (digits.endsWith("m")) {
+            multiplier = 1024 * 1024;
+        } else if (digits.endsWith("g")) {
+            multiplier = 1024 * 1024 * 1024;
+        }
+        if (multiplier != 1) {
+            digits = digits.substring(0, digits.length() - 1);
+        }
+        long bytes = Long.parseLong(digits);
+        if (bytes < 0) {
+            throw new NumberFormatException("Byte count cannot be negative: " + value);
+        }
+        try {
+            return Math.multiplyExact(bytes, multiplier);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Byte count is too large: " + value);
+        }
+    }
+
+    /**
+     * Validates board parameters and creates a board.
+     *
+     * @param name Board name.
+     * @param widthArg Board width argument.
+     * @param heightArg Board height argument.
+     * @param noteWidthArg Note width argument.
+     * @param noteHeightArg Note height argument.
+     * @param colourArgs Colour names.
+     * @return The new board.
+     * @throws NumberFormatException if a dimension is not an integer.
+     */
+    private static BoardState createBoard(String name, String widthArg, String heightArg, String noteWidthArg,
+                                          String noteHeightArg, List<String> colourArgs) {
+        // Parse board dimensions.
+        int boardWidth = Integer.parseInt(widthArg);
+        if (boardWidth < 1) {
+            System.err.println("Error: 'Board Width' must be at least 1.");
+            System.exit(1);
+        }
+
+        int boardHeight = Integer.parseInt(heightArg);
+        if (boardHeight < 1) {
+            System.err.println("Error: 'Board Height' must be at least 1.");
+            System.exit(1);
+        }
+
+        // Parse note dimensions.
+        int noteWidth = Integer.parseInt(noteWidthArg);
+        if (noteWidth < 1) {
+            System.err.println("Error: 'Note Width' must be at least 1.");
+            System.exit(1);
+        }
+
+        int noteHeight = Integer.parseInt(noteHeightArg);
+        if (noteHeight < 1) {
+            System.err.println("Error: 'Note Height' must be at least 1.");
+            System.exit(1);
+        }
+
+        // Parse colours.
+        Set<String> colours = new HashSet<>();
+        for (String colour : colourArgs) {
+            if (!colour.isEmpty()) {
+                colours.add(colour);
+            }
+        }
+
+        if (colours.size() < 1) {
+            System.err.println("Error: At least one colour must be specified for board '" + name + "'.");
+            System.exit(1);
+        }
+
+        // Validate note fits on board.
+        if (noteWidth > boardWidth || noteHeight > boardHeight) {
+            System.err.println("Error: Note dimensions must fit within board dimensions.");
+            System.exit(1);
+        }
+
+        return new BoardState(name, boardWidth, boardHeight, noteWidth, noteHeight, colours);
+    }
 
     /**
      * Prints usage information and exits.
      */
     private static void printUsageAndExit() {
-        System.err.println("\nUsage: java BulletinBoardServer <port> <board_width> <board_height> <note_width> <note_height> <colour1> ... <colourN>");
+        System.err.println("\nUsage: java BulletinBoardServer <port> <board_width> <board_height> <note_width> <note_height> <colour1> ... <colourN> [options]");
         System.err.println("\nParameters:");
         System.err.println("  port          - Port number (1-65535, default: 4321)");
         System.err.println("  board_width   - Width of the bulletin board (positive integer)");
@@ -153,9 +485,52 @@ public class BulletinBoardServer {
         System.err.println("  note_width    - Width of each note (positive integer)");
         System.err.println("  note_height   - Height of each note (positive integer)");
         System.err.println("  colour1...N    - At least one colour name (space-separated)");
+        System.err.println("\nOptions:");
+        System.err.println("  --board <name> <board_width> <board_height> <note_width> <note_height> <colour1,...,colourN>");
+        System.err.println("                 - Hosts an additional named board, selected by clients with USE <name>");
+        System.err.println("  --replicate <replication_port>");
+        System.err.println("                 - Runs as replication leader, streaming board mutations to followers on this port");
+        System.err.println("  --metrics-port <port>");
+        System.err.println("                 - Serves Prometheus metrics at http://<host>:<port>/metrics");
+        System.err.println("  --slow-threshold-ms <ms>");
+        System.err.println("                 - Requests taking at least this long are kept for SLOWLOG (default 100)");
+        System.err.println("  --slow-log <file>");
+        System.err.println("                 - Also appends slow requests to this file, rolled over at 10 MB");
+        System.err.println("  --idle-timeout <seconds>");
+        System.err.println("                 - Closes connections that send nothing for this long (default 0 = never)");
+        System.err.println("  --read-timeout <seconds>");
+        System.err.println("                 - Closes connections that take this long to send one request line (default 30, 0 = never)");
+        System.err.println("  --note-ttl <seconds>");
+        System.err.println("                 - Removes unpinned notes this long after they are posted, unless POST gives TTL=<seconds> (default 0 = never)");
+        System.err.println("  --memory-budget <bytes>[k|m|g]");
+        System.err.println("                 - Caps the estimated memory of each board's notes (default unlimited)");
+        System.err.println("  --eviction lrp|lru");
+        System.err.println("                 - Evicts the least recently posted (default) or least recently read unpinned notes");
+        System.err.println("  --store object|columnar");
+        System.err.println("                 - Keeps notes as objects (default) or in compact primitive columns for very large boards");
+        System.err.println("  --offheap-messages");
+        System.err.println("                 - With --store columnar, keeps note messages in direct buffers outside the Java heap");
+        System.err.println("  --scan-kernel auto|scalar|vector");
+        System.err.println("                 - With --store columnar, the position and colour scan loops; auto uses the SIMD vector kernel when it is loaded");
+        System.err.println("  --parallel-query <notes>");
+        System.err.println("                 - Splits GET scans across all cores on boards with at least this many notes (default 100000, 0 = never)");
+        System.err.println("  --acceptors <n>");
+        System.err.println("                 - Threads accepting connections, with one SO_REUSEPORT socket each where supported (default: cores, up to 4)");
+        System.err.println("  --compress-threshold <bytes>");
+        System.err.println("                 - Compresses responses at least this long for clients that send COMPRESS DEFLATE (default 8192, 0 = refuse)");
+        System.err.println("  --rate-limit <tokens_per_second> <burst>");
+        System.err.println("                 - Token bucket limit for each connection (default off)");
+        System.err.println("  --address-rate-limit <tokens_per_second> <burst>");
+        System.err.println("                 - Token bucket limit shared by all connections from one address (default off)");
+        System.err.println("  --quiet        - Does not print every command and response to stdout");
+        System.err.println("  --follow <leader_host>:<replication_port>");
+        System.err.println("                 - Runs as a read-only replication follower of a leader (boards must match the leader's)");
         System.err.println("\nExamples:");
         System.err.println("  java BulletinBoardServer 4321 200 100 20 10 red white green yellow");
         System.err.println("  java BulletinBoardServer 4554 200 100 20 10 red white green yellow");
+        System.err.println("  java BulletinBoardServer 4321 200 100 20 10 red white --board wall 800 600 40 20 blue,yellow");
+        System.err.println("  java BulletinBoardServer 4321 200 100 20 10 red white --replicate 5321");
+        System.err.println("  java BulletinBoardServer 4322 200 100 20 10 red white --follow 127.0.0.1:5321");
         System.err.println();
         System.exit(1);
     }
@@ -0,0 +1,96 @@
+import java.util.*;
+
+/**
+ * ChangeLog - A bounded ring of the most recent board mutations and what each one touched.
+ *
+ * Each entry records the version a mutation produced, the IDs of the notes it added, removed or
+ * (un)pinned, and the pin it placed or removed. GET SINCE walks the entries after a client's
+ * version and reports the current state of everything they touched, so the cost of a refresh
+ * depends on how much changed rather than on the size of the board.
+ *
+ * Once the ring is full the oldest entry is dropped, and versions before it can no longer be
+ * served. Not thread-safe; BoardState only uses it while holding its lock.
+ */
+public class ChangeLog {
+
+    /**
+     * One recorded mutation.
+     */
+    public static final class Change {
+        final long version;
+        final boolean clear; // CLEAR removes everything, so no IDs are listed.
+        final int[] noteIds;
+        final String pin; // "x,y" for PIN and UNPIN, otherwise null.
+
+        Change(long version, boolean clear, int[] noteIds, String pin) {
+            this.version = version;
+            this.clear = clear;
+            this.noteIds = noteIds;
+            this.pin = pin;
+        }
+    }
+
+    private final Change[] ring;
+    private int next; // Slot for the next entry.
+    private int size;
+    private long baseVersion; // Oldest version a client can ask for changes since.
+
+    /**
+     * Creates a new ChangeLog.
+     *
+     * @param capacity Number of mutations kept.
+     */
+    public ChangeLog(int capacity) {
+        this.ring = new Change[capacity];
+    }
+
+    /**
+     * Appends a mutation, dropping the oldest one if the ring is full.
+     *
+     * @param version Version produced by the mutation.
+     * @param clear true for CLEAR.
+     * @param noteIds IDs of the notes the mutation added, removed or changed.
+     * @param pin "x,y" of the pin placed or removed, or null.
+     */
+    public void add(long version, boolean clear, int[] noteIds, String pin) {
+        if (size == ring.length) {
+            baseVersion = ring[next].version;
+        } else {
+            size++;
+        }
+        ring[next] = new Change(version, clear, noteIds, pin);
+        next = (next + 1) % ring.length;
+    }
+
+    /**
+     * Forgets all entries. Only versions from `version` on can be served afterwards.
+     *
+     * @param version The board's current version.
+     */
+    public void reset(long version) {
+        Arrays.fill(ring, null);
+        next = 0;
+        size = 0;
+        baseVersion = version;
+    }
+
+    /**
+     * Gets the mutations after a version, oldest first.
+     *
+     * @param version Version the client already has.
+     * @return The changes, or null if some of them are no longer in the log.
+     */
+    public List<Change> since(long version) {
+        if (version < baseVersion) {
+            return null;
+        }
+        List<Change> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Change change = ring[(next - size + i + ring.length) % ring.length];
+            if (change.version > version) {
+                result.add(change);
+            }
+        }
+        return result;
+    }
+}
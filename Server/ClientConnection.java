@@ -1,29 +1,58 @@
 import java.io.*;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
 
 /**
  * ClientConnection - Handles communication with a single connected client.
  * 
  * Each client connection runs in its own thread, processing commands.
  * and sending responses according to the Bulletin Board Protocol.
+ *
+ * Idle and read timeouts are enforced from the server's shared TimingWheel rather than with
+ * socket timeouts: the connection thread only updates two volatile timestamps as bytes arrive,
+ * and one timer check per connection re-arms itself until a deadline passes, then closes the
+ * socket to unblock the read.
+ *
+ * After COMPRESS DEFLATE, responses of at least the server's compression threshold are sent as a
+ * single line, DEFLATE <bytes> <base64>, holding the raw deflate stream of the response text. The
+ * connection keeps one Deflater and output buffer for all of them.
  */
 public class ClientConnection implements Runnable {
+    private static final int COMPRESSION_LEVEL = Deflater.BEST_SPEED; // Repetitive NOTE lines compress well even at level 1.
+
     private final Socket clientSocket;
-    private final BoardState board;
+    private final ServerContext context;
+    private final BoardRegistry registry;
+    private final ServerMetrics metrics;
     private final int clientId;
+    private BoardState board; // Board selected by this client, only touched by this connection's thread.
+    private final TokenBucket rateBucket; // null when connections are not rate limited.
+    private Deflater deflater; // Set while the client has compression on, only touched by this connection's thread.
+    private byte[] deflateBuffer = new byte[0];
+
+    private volatile long lastActivity; // nanoTime of the last byte received or response written.
+    private volatile long requestStarted; // nanoTime the current partial request began arriving, 0 if none.
+    private volatile boolean closed;
+    private volatile String reapReason; // Set when the timer closed the connection.
 
     /**
-     * Creates a new ClientConnection.
+     * Creates a new ClientConnection attached to the default board.
      * 
      * @param clientSocket The socket connected to the client.
-     * @param board The shared bulletin board.
+     * @param context Server-wide services (boards, metrics, slow request log).
      * @param clientId Unique identifier for this client (for logging).
      */
-    public ClientConnection(Socket clientSocket, BoardState board, int clientId) {
+    public ClientConnection(Socket clientSocket, ServerContext context, int clientId) {
         this.clientSocket = clientSocket;
-        this.board = board;
+        this.context = context;
+        this.registry = context.getRegistry();
+        this.metrics = context.getMetrics();
         this.clientId = clientId;
+        this.board = registry.getDefaultBoard();
+        this.rateBucket = context.getRateLimiter().newConnectionBucket();
     }
 
     @Override
@@ -31,27 +60,43 @@ public class ClientConnection implements Runnable {
         PrintWriter out = null;
         BufferedReader in = null;
 
+        metrics.connectionOpened();
+        lastActivity = System.nanoTime();
+        scheduleTimeoutCheck();
         try {
             // Set up I/O streams.
-            out = new PrintWriter(clientSocket.getOutputStream(), true);
-            in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
+            out = new PrintWriter(metrics.countOut(clientSocket.getOutputStream()), true);
+            in = new BufferedReader(new InputStreamReader(trackActivity(metrics.countIn(clientSocket.getInputStream()))));
 
             System.out.println("[Client " + clientId + "] Connected from: " + clientSocket.getInetAddress());
 
             // Send HELLO handshake message.
             String helloMessage = buildHelloMessage();
             out.println(helloMessage);
-            System.out.println("[Client " + clientId + "] Sent: " + helloMessage);
+            trace("Sent: " + helloMessage);
 
             // Process client commands.
             String inputLine;
             while ((inputLine = in.readLine()) != null) {
+                CommandEvent event = new CommandEvent();
+                event.begin();
+                long received = System.nanoTime();
+                // Anything already buffered is the start of the next request.
+                requestStarted = in.ready() ? received : 0;
                 inputLine = inputLine.trim();
-                System.out.println("[Client " + clientId + "] Received: " + inputLine);
+                trace("Received: " + inputLine);
 
+                OpTiming timing = OpTiming.current();
+                timing.reset();
                 String response = processCommand(inputLine);
-                out.println(response);
-                System.out.println("[Client " + clientId + "] Sent: " + response);
+                chargeResults(inputLine, response, timing);
+                long processed = System.nanoTime();
+                out.println(encodeResponse(response));
+                long written = System.nanoTime();
+                lastActivity = written;
+
+                recordCommand(event, inputLine, response, timing, received, processed, written);
+                trace("Sent: " + response);
 
                 // Check for disconnect.
                 if (inputLine.toUpperCase().startsWith("DISCONNECT")) {
@@ -62,8 +107,18 @@ public class ClientConnection implements Runnable {
             System.out.println("[Client " + clientId + "] Disconnected.");
 
         } catch (IOException e) {
-            System.err.println("[Client " + clientId + "] Error: " + e.getMessage() + ".");
+            if (reapReason != null) {
+                System.out.println("[Client " + clientId + "] Closed: " + reapReason + ".");
+            } else {
+                System.err.println("[Client " + clientId + "] Error: " + e.getMessage() + ".");
+            }
         } finally {
+            closed = true;
+            metrics.connectionClosed();
+            if (deflater != null) {
+                deflater.end();
+            }
+
             // Close resources
             try {
                 if (out != null) out.close();
@@ -75,6 +130,102 @@ public class ClientConnection implements Runnable {
         }
     }
 
+    /**
+     * Wraps the socket input so the timeout check can tell idle waits from requests still arriving.
+     */
+    private InputStream trackActivity(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytesArrived();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    bytesArrived();
+                }
+                return n;
+            }
+        };
+    }
+
+    private void bytesArrived() {
+        long now = System.nanoTime();
+        lastActivity = now;
+        if (requestStarted == 0) {
+            requestStarted = now;
+        }
+    }
+
+    /**
+     * Arms the timeout check for the earliest deadline that could currently apply.
+     */
+    private void scheduleTimeoutCheck() {
+        long idle = context.getIdleTimeoutMillis();
+        long read = context.getReadTimeoutMillis();
+        if (idle <= 0 && read <= 0) {
+            return;
+        }
+        long delay = idle > 0 && read > 0 ? Math.min(idle, read) : Math.max(idle, read);
+        context.getTimer().schedule(this::checkTimeouts, delay);
+    }
+
+    /**
+     * Runs on the timer thread. Closes the connection if a request has been arriving for longer
+     * than the read timeout or the connection has been idle for longer than the idle timeout;
+     * otherwise re-arms itself for the nearest remaining deadline.
+     */
+    private void checkTimeouts() {
+        if (closed) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long started = requestStarted;
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(context.getIdleTimeoutMillis());
+        long readNanos = TimeUnit.MILLISECONDS.toNanos(context.getReadTimeoutMillis());
+
+        long remaining;
+        if (started != 0 && readNanos > 0) {
+            remaining = started + readNanos - now;
+            if (remaining <= 0) {
+                reap("read timeout", false);
+                return;
+            }
+        } else if (started == 0 && idleNanos > 0) {
+            remaining = lastActivity + idleNanos - now;
+            if (remaining <= 0) {
+                reap("idle timeout", true);
+                return;
+            }
+        } else {
+            // The applicable timeout is disabled; look again after the other one.
+            remaining = Math.max(idleNanos, readNanos);
+        }
+
+        if (readNanos > 0) {
+            // A request may start arriving before the idle deadline.
+            remaining = Math.min(remaining, readNanos);
+        }
+        context.getTimer().schedule(this::checkTimeouts, Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+    }
+
+    private void reap(String reason, boolean idle) {
+        reapReason = reason;
+        metrics.connectionReaped(idle);
+        try {
+            clientSocket.close();
+        } catch (IOException e) {
+            System.err.println("[Client " + clientId + "] Error closing timed-out connection: " + e.getMessage() + ".");
+        }
+    }
+
     /**
      * Builds the HELLO handshake message.
      * Format: HELLO <board_w> <board_h> <note_w> <note_h> COLOURS <n> <colour 1> ... <colour n>.
@@ -112,6 +263,19 @@ public class ClientConnection implements Runnable {
 
             String cmd = tokens[0].toUpperCase();
 
+            // Followers only apply mutations streamed from the replication leader.
+            if (board.isReadOnly() && isMutation(cmd)) {
+                return "ERROR READ_ONLY This server is a replication follower; send " + cmd + " to the leader.";
+            }
+
+            // Rejected commands never reach the board.
+            RateLimiter limiter = context.getRateLimiter();
+            long retryNanos = limiter.tryAcquire(rateBucket, clientSocket.getInetAddress(), RateLimiter.cost(cmd));
+            if (retryNanos > 0) {
+                return "ERROR RATE_LIMITED Too many requests; retry in "
+                        + Math.max(1, TimeUnit.NANOSECONDS.toMillis(retryNanos)) + " ms.";
+            }
+
             switch (cmd) {
                 case "POST":
                     return handlePost(command);
@@ -125,6 +289,18 @@ public class ClientConnection implements Runnable {
                     return handleShake(command);
                 case "CLEAR":
                     return handleClear(command);
+                case "USE":
+                    return handleUse(command);
+                case "REPLICATION":
+                    return handleReplication(command);
+                case "STATS":
+                    return handleStats(command);
+                case "SLOWLOG":
+                    return handleSlowLog(command);
+                case "LOCKS":
+                    return handleLocks(command);
+                case "COMPRESS":
+                    return handleCompress(command);
                 case "DISCONNECT":
                     return handleDisconnect(command);
                 default:
@@ -135,9 +311,96 @@ public class ClientConnection implements Runnable {
         }
     }
 
+    /**
+     * Records a processed command in the server metrics and, when Flight Recorder is recording it,
+     * as a CommandEvent with its phase breakdown.
+     */
+    private void recordCommand(CommandEvent event, String command, String response, OpTiming timing,
+                               long received, long processed, long written) {
+        String name = commandName(command);
+        boolean error = response.startsWith("ERROR");
+        metrics.recordCommand(name, error, (written - received) / 1000);
+        context.getSlowLog().record(clientId, board.getName(), command, written - received, timing, written - processed);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.clientId = clientId;
+            event.board = board.getName();
+            event.command = name;
+            event.error = error;
+            event.resultSize = timing.getResultSize();
+            event.lockWait = timing.getLockWaitNanos();
+            event.execute = timing.getHoldNanos();
+            event.parse = Math.max(0, processed - received - timing.getLockWaitNanos() - timing.getHoldNanos());
+            event.write = written - processed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Compresses a response into a DEFLATE line if compression is on and the response is large enough.
+     * The threshold is compared with the character count, which equals the byte count for ASCII text.
+     */
+    private String encodeResponse(String response) {
+        int threshold = context.getCompressThreshold();
+        if (deflater == null || response.length() < threshold) {
+            return response;
+        }
+
+        byte[] raw = response.getBytes(StandardCharsets.UTF_8);
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == deflateBuffer.length) {
+                deflateBuffer = Arrays.copyOf(deflateBuffer, Math.max(4096, deflateBuffer.length * 2));
+            }
+            length += deflater.deflate(deflateBuffer, length, deflateBuffer.length - length);
+        }
+
+        String line = "DEFLATE " + raw.length + " " + Base64.getEncoder().encodeToString(Arrays.copyOf(deflateBuffer, length));
+        metrics.compressed(raw.length, line.length());
+        return line;
+    }
+
+    /**
+     * Charges a successful GET for the size of its result, on top of its up-front cost.
+     */
+    private void chargeResults(String command, String response, OpTiming timing) {
+        if (commandName(command).equals("GET") && !response.startsWith("ERROR")) {
+            context.getRateLimiter().charge(rateBucket, clientSocket.getInetAddress(),
+                    (double) timing.getResultSize() / RateLimiter.GET_RESULTS_PER_TOKEN);
+        }
+    }
+
+    /**
+     * Prints a per-command trace line unless tracing is disabled.
+     */
+    private void trace(String message) {
+        if (context.isTraceEnabled()) {
+            System.out.println("[Client " + clientId + "] " + message);
+        }
+    }
+
+    /**
+     * Extracts the upper-case command name from a request line.
+     */
+    private static String commandName(String command) {
+        int space = command.indexOf(' ');
+        return (space < 0 ? command : command.substring(0, space)).toUpperCase();
+    }
+
+    /**
+     * Checks whether a command changes the board.
+     */
+    private static boolean isMutation(String cmd) {
+        return cmd.equals("POST") || cmd.equals("PIN") || cmd.equals("UNPIN") || cmd.equals("SHAKE") || cmd.equals("CLEAR");
+    }
+
     /**
      * Handles POST command.
-     * Format: POST <x> <y> <colour> <message>.
+     * Format: POST <x> <y> <colour> [TTL=<seconds>] <message>.
      */
     private String handlePost(String command) {
         try {
@@ -155,7 +418,21 @@ public class ClientConnection implements Runnable {
             int messageStartIndex = command.indexOf(colour) + colour.length();
             String message = command.substring(messageStartIndex).trim();
 
-            int noteId = board.postNote(x, y, colour, message);
+            // Optional TTL=<seconds> before the message overrides the server default. Only an upper-case
+            // TTL= followed by a number is the keyword; any other text, such as "ttl=5" or "TTL=soon",
+            // is part of the message.
+            long ttlSeconds = board.getDefaultTtlSeconds();
+            int end = message.indexOf(' ');
+            String firstWord = end < 0 ? message : message.substring(0, end);
+            if (firstWord.matches("TTL=-?[0-9]+")) {
+                ttlSeconds = Long.parseLong(firstWord.substring(4));
+                if (ttlSeconds < 0) {
+                    return "ERROR INVALID_FORMAT TTL cannot be negative.";
+                }
+                message = end < 0 ? "" : message.substring(end + 1).trim();
+            }
+
+            int noteId = board.postNote(x, y, colour, message, ttlSeconds);
             return "OK NOTE " + noteId;
 
         } catch (NumberFormatException e) {
@@ -169,7 +446,8 @@ public class ClientConnection implements Runnable {
 
     /**
      * Handles GET command.
-     * Formats: GET PINS or GET [colour=<c>] [contains=<x> <y>] [refersTo=<s>].
+     * Formats: GET PINS, GET SINCE <version>, GET IFCHANGED <version> [filters],
+     * GET NEAREST <x> <y> <k> [colour=<c>] or GET [colour=<c>] [contains=<x> <y>] [region=<x1> <y1> <x2> <y2>] [refersTo=<s>].
      */
     private String handleGet(String command) {
         try {
@@ -177,6 +455,12 @@ public class ClientConnection implements Runnable {
 
             if (input.toUpperCase().equals("PINS")) {
                 return handleGetPins();
+            } else if (input.toUpperCase().startsWith("SINCE")) {
+                return handleGetSince(input);
+            } else if (input.toUpperCase().startsWith("IFCHANGED")) {
+                return handleGetIfChanged(input);
+            } else if (input.toUpperCase().startsWith("NEAREST")) {
+                return handleGetNearest(input);
             } else {
                 return handleGetQuery(input);
             }
@@ -199,6 +483,127 @@ public class ClientConnection implements Runnable {
         return sb.toString();
     }
 
+    /**
+     * Handles GET SINCE command.
+     * Format: GET SINCE <version>
+     * Replies with OK <n> VERSION <current>, the change lines described in BoardDelta, then END,
+     * or ERROR REFETCH_REQUIRED if the changes are no longer in the board's change log.
+     */
+    private String handleGetSince(String input) {
+        String[] parts = input.split("\\s+");
+        if (parts.length != 2) {
+            return "ERROR INVALID_FORMAT GET SINCE requires a version.";
+        }
+
+        long since;
+        try {
+            since = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return "ERROR INVALID_INT " + e.getMessage() + ".";
+        }
+
+        BoardDelta delta;
+        try {
+            delta = board.changesSince(since);
+        } catch (IllegalArgumentException e) {
+            return "ERROR " + e.getMessage();
+        }
+        if (delta == null) {
+            return "ERROR REFETCH_REQUIRED Changes since version " + since + " are no longer available; send GET.";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("OK ").append(delta.getLines().size()).append(" VERSION ").append(delta.getVersion()).append("\n");
+        for (String line : delta.getLines()) {
+            sb.append(line).append("\n");
+        }
+        sb.append("END");
+        return sb.toString();
+    }
+
+    /**
+     * Handles GET IFCHANGED command.
+     * Format: GET IFCHANGED <version> [colour=<c>] [contains=<x> <y>] [region=<x1> <y1> <x2> <y2>] [refersTo=<s>]
+     * or GET IFCHANGED <version> NEAREST <x> <y> <k> [colour=<c>]
+     * Replies with the single line NOT_MODIFIED <version> if the board is still at that version,
+     * which means any query's result is unchanged; otherwise runs the query as a plain GET would.
+     */
+    private String handleGetIfChanged(String input) {
+        String[] parts = input.split("\\s+", 3);
+        if (parts.length < 2) {
+            return "ERROR INVALID_FORMAT GET IFCHANGED requires a version.";
+        }
+
+        long version;
+        try {
+            version = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return "ERROR INVALID_INT " + e.getMessage() + ".";
+        }
+
+        String filters = parts.length > 2 ? parts[2] : "";
+        String subQuery = filters.toUpperCase();
+        if (subQuery.equals("PINS") || subQuery.startsWith("SINCE") || subQuery.startsWith("IFCHANGED")) {
+            return "ERROR INVALID_FORMAT GET IFCHANGED only applies to note queries.";
+        }
+
+        if (board.getVersion() == version) {
+            metrics.notModified();
+            return "NOT_MODIFIED " + version;
+        }
+        return subQuery.startsWith("NEAREST") ? handleGetNearest(filters) : handleGetQuery(filters);
+    }
+
+    /**
+     * Handles GET NEAREST command.
+     * Format: GET NEAREST <x> <y> <k> [colour=<c>]
+     * Replies like a plain GET, with up to k notes ordered nearest first.
+     */
+    private String handleGetNearest(String input) {
+        String[] parts = input.split("\\s+");
+        if (parts.length < 4 || parts.length > 5) {
+            return "ERROR INVALID_FORMAT GET NEAREST requires X, Y and a count.";
+        }
+
+        int x;
+        int y;
+        int k;
+        try {
+            x = Integer.parseInt(parts[1]);
+            y = Integer.parseInt(parts[2]);
+            k = Integer.parseInt(parts[3]);
+        } catch (NumberFormatException e) {
+            return "ERROR INVALID_INT " + e.getMessage() + ".";
+        }
+        if (k < 1) {
+            return "ERROR INVALID_FORMAT GET NEAREST requires a count of at least 1.";
+        }
+
+        String colourFilter = null;
+        if (parts.length == 5) {
+            if (!parts[4].startsWith("colour=")) {
+                return "ERROR INVALID_FORMAT GET NEAREST only supports a colour= filter.";
+            }
+            colourFilter = parts[4].substring(7);
+        }
+
+        long version = board.getVersion();
+        List<Note> results;
+        try {
+            results = board.nearestNotes(x, y, k, colourFilter);
+        } catch (IllegalArgumentException e) {
+            return "ERROR " + e.getMessage();
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("OK ").append(results.size()).append(" VERSION ").append(version).append("\n");
+        for (Note note : results) {
+            sb.append(note.toProtocolString()).append("\n");
+        }
+        sb.append("END");
+        return sb.toString();
+    }
+
     /**
      * Handles GET query with filters.
      */
@@ -208,6 +613,7 @@ public class ClientConnection implements Runnable {
             int containsX = -1;
             int containsY = -1;
             String refersTo = null;
+            int[] region = null; // Inclusive {x1, y1, x2, y2} of the notes to intersect.
 
             if (!filters.isEmpty()) {
                 String[] parts = filters.split(" ");
@@ -227,6 +633,17 @@ public class ClientConnection implements Runnable {
                         } else {
                             return "ERROR INVALID_FORMAT contains= requires X and Y coordinates.";
                         }
+                    } else if (filter.startsWith("region=")) {
+                        if (i + 3 < parts.length) {
+                            region = new int[]{Integer.parseInt(filter.substring(7)), Integer.parseInt(parts[i + 1]),
+                                    Integer.parseInt(parts[i + 2]), Integer.parseInt(parts[i + 3])};
+                            i += 4;
+                        } else {
+                            return "ERROR INVALID_FORMAT region= requires X1, Y1, X2 and Y2 coordinates.";
+                        }
+                        if (region[0] > region[2] || region[1] > region[3]) {
+                            return "ERROR INVALID_FORMAT region= requires X1 <= X2 and Y1 <= Y2.";
+                        }
                     } else if (filter.startsWith("refersTo=")) {
                         refersTo = filter.substring(9);
                         i++;
@@ -236,10 +653,12 @@ public class ClientConnection implements Runnable {
                 }
             }
 
-            List<Note> results = board.queryNotes(colourFilter, containsX, containsY, refersTo);
+            // Read before querying, so a GET SINCE from this version may repeat a change but never miss one.
+            long version = board.getVersion();
+            List<Note> results = board.queryNotes(colourFilter, containsX, containsY, refersTo, region);
             
             StringBuilder sb = new StringBuilder();
-            sb.append("OK ").append(results.size()).append("\n");
+            sb.append("OK ").append(results.size()).append(" VERSION ").append(version).append("\n");
             for (Note note : results) {
                 sb.append(note.toProtocolString()).append("\n");
             }
@@ -327,6 +746,204 @@ public class ClientConnection implements Runnable {
         return "OK";
     }
 
+    /**
+     * Handles USE command.
+     * Format: USE <board>
+     * Replies with the HELLO message of the selected board.
+     */
+    private String handleUse(String command) {
+        String[] parts = command.split("\\s+");
+        if (parts.length != 2) {
+            return "ERROR INVALID_FORMAT USE requires a board name.";
+        }
+
+        BoardState selected = registry.getBoard(parts[1]);
+        if (selected == null) {
+            return "ERROR BOARD_NOT_FOUND No board named '" + parts[1] + "'.";
+        }
+
+        board = selected;
+        System.out.println("[Client " + clientId + "] Using board: " + board.getName());
+        return buildHelloMessage();
+    }
+
+    /**
+     * Handles REPLICATION command.
+     * Format: REPLICATION
+     * Replies with OK <count>, one STAT <key> <value> line per status entry, then END.
+     */
+    private String handleReplication(String command) {
+        String[] parts = command.split("\\s+");
+        if (parts.length != 1) {
+            return "ERROR INVALID_FORMAT REPLICATION takes no arguments.";
+        }
+
+        Map<String, String> status;
+        ReplicationNode replication = registry.getReplication();
+        if (replication != null) {
+            status = replication.describe(board);
+        } else {
+            status = new LinkedHashMap<>();
+            status.put("role", "standalone");
+            status.put("version", String.valueOf(board.getVersion()));
+        }
+        return formatStats(status);
+    }
+
+    /**
+     * Handles STATS command.
+     * Format: STATS
+     * Replies with server-wide counters, the current board's size and, for every command seen so far,
+     * its request/error counts and latency percentiles (microseconds), as STAT <key> <value> lines.
+     */
+    private String handleStats(String command) {
+        String[] parts = command.split("\\s+");
+        if (parts.length != 1) {
+            return "ERROR INVALID_FORMAT STATS takes no arguments.";
+        }
+
+        Map<String, String> stats = new LinkedHashMap<>();
+        stats.put("connections_active", String.valueOf(metrics.getActiveConnections()));
+        stats.put("connections_total", String.valueOf(metrics.getTotalConnections()));
+        stats.put("bytes_in", String.valueOf(metrics.getBytesIn()));
+        stats.put("bytes_out", String.valueOf(metrics.getBytesOut()));
+        stats.put("connections_reaped_idle", String.valueOf(metrics.getReapedIdle()));
+        stats.put("connections_reaped_read", String.valueOf(metrics.getReapedRead()));
+        stats.put("rate_limited", String.valueOf(context.getRateLimiter().getRejected()));
+        stats.put("get_not_modified", String.valueOf(metrics.getNotModified()));
+        stats.put("compressed_responses", String.valueOf(metrics.getCompressedResponses()));
+        stats.put("compressed_raw_bytes", String.valueOf(metrics.getCompressedRawBytes()));
+        stats.put("compressed_wire_bytes", String.valueOf(metrics.getCompressedWireBytes()));
+        stats.put("board", board.getName());
+        stats.put("notes", String.valueOf(board.getNoteCount()));
+        stats.put("pins", String.valueOf(board.getPinCount()));
+        stats.put("lock_contended", String.valueOf(board.getLockProfiler().getContended()));
+        stats.put("notes_expired", String.valueOf(board.getExpiredCount()));
+        stats.put("note_ttl_default_s", String.valueOf(board.getDefaultTtlSeconds()));
+        stats.put("note_store", board.getNoteStoreType());
+        stats.put("parallel_query_threshold", String.valueOf(board.getParallelQueryThreshold()));
+        stats.put("parallel_queries", String.valueOf(board.getParallelQueryCount()));
+        stats.put("memory_bytes", String.valueOf(board.getFootprint()));
+        stats.put("memory_budget_bytes", String.valueOf(board.getMemoryBudget()));
+        stats.put("eviction_policy", board.getEvictionPolicy());
+        stats.put("notes_evicted", String.valueOf(board.getEvictedCount()));
+        stats.put("slow_requests", String.valueOf(context.getSlowLog().getRecorded()));
+        stats.put("slow_threshold_ms", String.valueOf(context.getSlowLog().getThresholdMillis()));
+
+        for (String name : ServerMetrics.COMMANDS) {
+            long requests = metrics.getRequests(name);
+            if (requests == 0) {
+                continue;
+            }
+            String key = name.toLowerCase();
+            LatencyHistogram latency = metrics.getLatency(name);
+            stats.put(key + ".requests", String.valueOf(requests));
+            stats.put(key + ".errors", String.valueOf(metrics.getErrors(name)));
+            stats.put(key + ".p50_us", String.valueOf(latency.getPercentile(50)));
+            stats.put(key + ".p99_us", String.valueOf(latency.getPercentile(99)));
+            stats.put(key + ".p999_us", String.valueOf(latency.getPercentile(99.9)));
+            stats.put(key + ".max_us", String.valueOf(latency.getMax()));
+        }
+        return formatStats(stats);
+    }
+
+    /**
+     * Handles LOCKS command.
+     * Format: LOCKS
+     * Replies with the current board's lock contention statistics as STAT lines: per operation,
+     * acquisitions, contended acquisitions, lock wait and hold percentiles, and for contended
+     * acquisitions which operation was holding the lock (blocked.<waiter>.by.<holder>).
+     */
+    private String handleLocks(String command) {
+        String[] parts = command.split("\\s+");
+        if (parts.length != 1) {
+            return "ERROR INVALID_FORMAT LOCKS takes no arguments.";
+        }
+
+        Map<String, String> stats = new LinkedHashMap<>();
+        stats.put("board", board.getName());
+        stats.putAll(board.getLockProfiler().describe());
+        return formatStats(stats);
+    }
+
+    /**
+     * Handles SLOWLOG command.
+     * Format: SLOWLOG [<count>]
+     * Replies with OK <n>, the most recent slow requests (newest first, default 20), then END.
+     */
+    private String handleSlowLog(String command) {
+        String[] parts = command.split("\\s+");
+        if (parts.length > 2) {
+            return "ERROR INVALID_FORMAT SLOWLOG takes at most a count.";
+        }
+
+        int limit = 20;
+        if (parts.length == 2) {
+            try {
+                limit = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                return "ERROR INVALID_INT " + e.getMessage() + ".";
+            }
+            if (limit < 1) {
+                return "ERROR INVALID_FORMAT SLOWLOG count must be at least 1.";
+            }
+        }
+
+        List<String> entries = context.getSlowLog().getRecent(limit);
+        StringBuilder sb = new StringBuilder();
+        sb.append("OK ").append(entries.size()).append("\n");
+        for (String entry : entries) {
+            sb.append(entry).append("\n");
+        }
+        sb.append("END");
+        return sb.toString();
+    }
+
+    /**
+     * Formats key/value pairs as a multi-line STAT response.
+     */
+    private String formatStats(Map<String, String> stats) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("OK ").append(stats.size()).append("\n");
+        for (Map.Entry<String, String> entry : stats.entrySet()) {
+            sb.append("STAT ").append(entry.getKey()).append(" ").append(entry.getValue()).append("\n");
+        }
+        sb.append("END");
+        return sb.toString();
+    }
+
+    /**
+     * Handles COMPRESS command.
+     * Format: COMPRESS DEFLATE or COMPRESS OFF.
+     * Replies uncompressed; later responses of at least the server's threshold are sent as DEFLATE lines.
+     */
+    private String handleCompress(String command) {
+        String[] parts = command.split("\\s+");
+        if (parts.length != 2) {
+            return "ERROR INVALID_FORMAT COMPRESS requires DEFLATE or OFF.";
+        }
+
+        String mode = parts[1].toUpperCase();
+        if (mode.equals("OFF")) {
+            if (deflater != null) {
+                deflater.end();
+                deflater = null;
+                deflateBuffer = new byte[0];
+            }
+            return "OK";
+        }
+        if (!mode.equals("DEFLATE")) {
+            return "ERROR INVALID_FORMAT Unknown compression '" + parts[1] + "'; use DEFLATE or OFF.";
+        }
+        if (context.getCompressThreshold() == 0) {
+            return "ERROR COMPRESSION_DISABLED This server does not compress responses.";
+        }
+        if (deflater == null) {
+            deflater = new Deflater(COMPRESSION_LEVEL, true);
+        }
+        return "OK";
+    }
+
     /**
      * Handles DISCONNECT command.
      * Format: DISCONNECT
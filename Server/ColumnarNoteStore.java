@@ -0,0 +1,683 @@
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ColumnarNoteStore - Keeps notes as parallel primitive arrays (struct of arrays), for very large boards.
+ *
+ * Each note is a slot: its ID, x, y, colour ordinal, pin count, and the handle and length of its
+ * UTF-8 message in a MessageArena, on the heap or, with --offheap-messages, in direct buffers the
+ * garbage collector never scans. With the position index below that is about 37 bytes per note
+ * plus the message (53 with the board's SpatialGrid entry, which BoardState counts separately),
+ * against roughly 150 plus two per character for ObjectNoteStore, so 10 million notes with short
+ * messages fit in a few hundred MB. Expiry deadlines and last-use stamps cost 8 bytes more each,
+ * and those columns are only allocated once the board posts a note with a TTL or evicts by last use.
+ *
+ * Notes arrive in ascending ID order and slots are only ever appended, so the ID column is sorted
+ * and doubles as the ID-to-slot index (binary search). Removing a note marks its slot dead and
+ * returns its message slot to the arena for reuse. Dead slots are reclaimed by compaction, which
+ * slides the live slots down in place; it runs after every SHAKE and whenever dead slots outnumber
+ * live ones.
+ *
+ * The POST overlap check uses an open-addressing hash set of packed upper-left corners (about
+ * 11 bytes per note), since a scan per POST would make filling a huge board quadratic. PIN and GET
+ * scan the primitive columns without touching a Note: the contains= and colour= predicates run
+ * through a ScanKernel (SIMD when the Vector API is available) a block of slots at a time, and
+ * refersTo= filters match the UTF-8 bytes directly. A Note object is only built for each note returned.
+ */
+public class ColumnarNoteStore implements NoteStore {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8; // Largest array most JVMs allocate.
+    private static final int MIN_COMPACT_DEAD = 4096; // Dead slots below this are not worth a compaction.
+    private static final int MIN_PARALLEL_LEAF = 16_384; // Smallest slot range scanned as one fork-join task.
+    private static final int SCAN_BLOCK = 4096; // Slots handed to the scan kernel at a time.
+    private static final short DEAD = -1; // Colour ordinal of a removed note's slot.
+    private static final long SLOT_BYTES = 4 * 6 + 2; // ids, xs, ys, pinCounts, messageHandles, messageLengths, colours.
+    private static final long POSITION_BYTES = 11; // One long per 0.75 of a position table slot.
+    private static final long EMPTY_POSITION = Long.MIN_VALUE; // Never a packed position, as x and y are not negative.
+
+    private final int noteWidth;
+    private final int noteHeight;
+    private final List<String> colourNames; // Ordinal -> colour.
+    private final Map<String, Short> colourOrdinals;
+    private final ScanKernel kernel;
+
+    private int[] ids; // Ascending over all used slots, dead ones included.
+    private int[] xs;
+    private int[] ys;
+    private short[] colours;
+    private int[] pinCounts;
+    private int[] messageHandles; // MessageArena handles.
+    private int[] messageLengths;
+    private long[] expiresAt; // null until a note has a TTL.
+    private long[] lastUsed; // null until a note is stamped.
+    private final MessageArena messages;
+
+    private long[] positions; // Linear-probing hash set of packed (x, y) corners of live notes.
+    private int positionCount;
+
+    private int used; // Slots in use, dead ones included.
+    private int live;
+    private long liveMessageBytes; // Arena slot bytes of live notes' messages.
+
+    /**
+     * Creates a new ColumnarNoteStore.
+     *
+     * @param noteWidth Width of all notes.
+     * @param noteHeight Height of all notes.
+     * @param colours The board's colours; others are added to the colour table when first seen.
+     * @param offHeapMessages true to keep messages in direct buffers outside the Java heap.
+     * @param kernel Kernel for the position and colour scans.
+     */
+    public ColumnarNoteStore(int noteWidth, int noteHeight, Collection<String> colours, boolean offHeapMessages,
+            ScanKernel kernel) {
+        this.noteWidth = noteWidth;
+        this.noteHeight = noteHeight;
+        this.kernel = kernel;
+        this.colourNames = new ArrayList<>();
+        this.colourOrdinals = new HashMap<>();
+        for (String colour : colours) {
+            ordinalOf(colour);
+        }
+        this.messages = new MessageArena(offHeapMessages);
+        allocate(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public String getType() {
+        return messages.isDirect() ? "columnar-offheap" : "columnar";
+    }
+
+    @Override
+    public void add(int id, int x, int y, String colour, String message) {
+        if (used > 0 && id <= ids[used - 1]) {
+            throw new IllegalStateException("Note " + id + " added after note " + ids[used - 1] + "; IDs must ascend.");
+        }
+        byte[] encoded = (message == null ? "" : message).getBytes(StandardCharsets.UTF_8);
+        short ordinal = ordinalOf(colour);
+        if (used == ids.length) {
+            resize(grow(ids.length, used + 1));
+        }
+        // Allocate before taking the slot, so a message the arena rejects leaves the store unchanged.
+        int handle = messages.allocate(encoded);
+
+        int slot = used++;
+        ids[slot] = id;
+        xs[slot] = x;
+        ys[slot] = y;
+        colours[slot] = ordinal;
+        pinCounts[slot] = 0;
+        messageHandles[slot] = handle;
+        messageLengths[slot] = encoded.length;
+        if (expiresAt != null) {
+            expiresAt[slot] = 0;
+        }
+        if (lastUsed != null) {
+            lastUsed[slot] = 0;
+        }
+        live++;
+        liveMessageBytes += MessageArena.slotBytes(encoded.length);
+        addPosition(pack(x, y));
+    }
+
+    @Override
+    public boolean remove(int id) {
+        int slot = slotOf(id);
+        if (slot < 0) {
+            return false;
+        }
+        kill(slot);
+        int dead = used - live;
+        if (dead >= MIN_COMPACT_DEAD && dead > live) {
+            compact();
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        allocate(INITIAL_CAPACITY);
+        messages.clear();
+        used = 0;
+        live = 0;
+        liveMessageBytes = 0;
+    }
+
+    @Override
+    public int[] removeUnpinned() {
+        int[] removed = new int[live];
+        int count = 0;
+        for (int slot = 0; slot < used; slot++) {
+            if (colours[slot] != DEAD && pinCounts[slot] == 0) {
+                kill(slot);
+                removed[count++] = ids[slot];
+            }
+        }
+        compact();
+        return Arrays.copyOf(removed, count);
+    }
+
+    @Override
+    public int size() {
+        return live;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return slotOf(id) >= 0;
+    }
+
+    @Override
+    public Note get(int id) {
+        int slot = slotOf(id);
+        return slot < 0 ? null : toNote(slot);
+    }
+
+    @Override
+    public String colourOf(int id) {
+        int slot = slotOf(id);
+        return slot < 0 ? null : colourNames.get(colours[slot]);
+    }
+
+    @Override
+    public int[] ids() {
+        int[] result = new int[live];
+        int count = 0;
+        for (int slot = 0; slot < used; slot++) {
+            if (colours[slot] != DEAD) {
+                result[count++] = ids[slot];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void addPin(int id) {
+        int slot = slotOf(id);
+        if (slot >= 0) {
+            pinCounts[slot]++;
+        }
+    }
+
+    @Override
+    public int removePin(int id) {
+        int slot = slotOf(id);
+        return slot < 0 ? -1 : --pinCounts[slot];
+    }
+
+    @Override
+    public void setExpiresAt(int id, long deadline) {
+        int slot = slotOf(id);
+        if (slot < 0 || (expiresAt == null && deadline == 0)) {
+            return;
+        }
+        if (expiresAt == null) {
+            expiresAt = new long[ids.length];
+        }
+        expiresAt[slot] = deadline;
+    }
+
+    @Override
+    public void reserveColumns(boolean expiring, boolean stamped) {
+        if (expiring && expiresAt == null) {
+            expiresAt = new long[ids.length];
+        }
+        if (stamped && lastUsed == null) {
+            lastUsed = new long[ids.length];
+        }
+    }
+
+    @Override
+    public void setLastUsed(int id, long stamp) {
+        int slot = slotOf(id);
+        if (slot < 0) {
+            return;
+        }
+        if (lastUsed == null) {
+            lastUsed = new long[ids.length];
+        }
+        lastUsed[slot] = stamp;
+    }
+
+    @Override
+    public boolean hasNoteAt(int x, int y) {
+        long position = pack(x, y);
+        for (int i = positionIndex(position); positions[i] != EMPTY_POSITION; i = (i + 1) & (positions.length - 1)) {
+            if (positions[i] == position) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int[] idsContaining(int px, int py) {
+        int[] result = new int[8];
+        int count = 0;
+        int[] selected = new int[Math.min(SCAN_BLOCK, Math.max(used, 1))];
+        for (int block = 0; block < used; block += SCAN_BLOCK) {
+            int end = Math.min(used, block + SCAN_BLOCK);
+            int matches = kernel.selectContaining(xs, ys, block, end, px, py, noteWidth, noteHeight, selected);
+            for (int i = 0; i < matches; i++) {
+                int slot = selected[i];
+                if (colours[slot] == DEAD) {
+                    continue;
+                }
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = ids[slot];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    @Override
+    public List<Note> query(String colour, int containsX, int containsY, String refersTo, ForkJoinPool pool) {
+        short colourFilter = DEAD;
+        if (colour != null) {
+            Short ordinal = colourOrdinals.get(colour);
+            if (ordinal == null) {
+                return new ArrayList<>();
+            }
+            colourFilter = ordinal;
+        }
+        byte[] needle = refersTo == null ? null : refersTo.getBytes(StandardCharsets.UTF_8);
+
+        if (pool == null) {
+            return scan(0, used, colourFilter, containsX, containsY, needle);
+        }
+        // A few leaves per thread, so threads that finish early can steal the rest.
+        int leafSlots = Math.max(MIN_PARALLEL_LEAF, used / (pool.getParallelism() * 4));
+        return pool.invoke(new QueryTask(0, used, leafSlots, colourFilter, containsX, containsY, needle));
+    }
+
+    @Override
+    public List<Note> select(int[] candidates, String colour, int containsX, int containsY, String refersTo) {
+        short colourFilter = DEAD;
+        if (colour != null) {
+            Short ordinal = colourOrdinals.get(colour);
+            if (ordinal == null) {
+                return new ArrayList<>();
+            }
+            colourFilter = ordinal;
+        }
+        byte[] needle = refersTo == null ? null : refersTo.getBytes(StandardCharsets.UTF_8);
+        boolean containsFilter = containsX != -1 && containsY != -1;
+
+        List<Note> results = new ArrayList<>();
+        for (int id : candidates) {
+            int slot = slotOf(id);
+            if (slot < 0 || (colourFilter != DEAD && colours[slot] != colourFilter)) {
+                continue;
+            }
+            if (containsFilter && (containsX < xs[slot] || containsX >= xs[slot] + noteWidth
+                    || containsY < ys[slot] || containsY >= ys[slot] + noteHeight)) {
+                continue;
+            }
+            if (needle != null && !messages.contains(messageHandles[slot], messageLengths[slot], needle)) {
+                continue;
+            }
+            results.add(toNote(slot));
+        }
+        return results;
+    }
+
+    /**
+     * Scans a range of slots for notes matching all filters.
+     */
+    private List<Note> scan(int from, int to, short colourFilter, int containsX, int containsY, byte[] needle) {
+        List<Note> results = new ArrayList<>();
+        boolean containsFilter = containsX != -1 && containsY != -1;
+        if (!containsFilter && colourFilter == DEAD) {
+            for (int slot = from; slot < to; slot++) {
+                if (colours[slot] != DEAD && (needle == null || messages.contains(messageHandles[slot], messageLengths[slot], needle))) {
+                    results.add(toNote(slot));
+                }
+            }
+            return results;
+        }
+
+        // Let the kernel narrow each block down by position (the more selective predicate) or colour,
+        // then check the remaining predicates on the selected slots only.
+        int[] selected = new int[Math.min(SCAN_BLOCK, Math.max(to - from, 1))];
+        for (int block = from; block < to; block += SCAN_BLOCK) {
+            int end = Math.min(to, block + SCAN_BLOCK);
+            int matches = containsFilter
+                    ? kernel.selectContaining(xs, ys, block, end, containsX, containsY, noteWidth, noteHeight, selected)
+                    : kernel.selectColour(colours, block, end, colourFilter, selected);
+            for (int i = 0; i < matches; i++) {
+                int slot = selected[i];
+                short c = colours[slot];
+                if (c == DEAD || (colourFilter != DEAD && c != colourFilter)) {
+                    continue;
+                }
+                if (needle != null && !messages.contains(messageHandles[slot], messageLengths[slot], needle)) {
+                    continue;
+                }
+                results.add(toNote(slot));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Splits a slot range in halves down to leafSlots, scans the leaves in parallel and concatenates
+     * their results left to right, which keeps them in ID order.
+     */
+    private final class QueryTask extends RecursiveTask<List<Note>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int leafSlots;
+        private final short colourFilter;
+        private final int containsX;
+        private final int containsY;
+        private final byte[] needle;
+
+        QueryTask(int from, int to, int leafSlots, short colourFilter, int containsX, int containsY, byte[] needle) {
+            this.from = from;
+            this.to = to;
+            this.leafSlots = leafSlots;
+            this.colourFilter = colourFilter;
+            this.containsX = containsX;
+            this.containsY = containsY;
+            this.needle = needle;
+        }
+
+        @Override
+        protected List<Note> compute() {
+            if (to - from <= leafSlots) {
+                return scan(from, to, colourFilter, containsX, containsY, needle);
+            }
+            int middle = (from + to) >>> 1;
+            QueryTask left = new QueryTask(from, middle, leafSlots, colourFilter, containsX, containsY, needle);
+            left.fork();
+            List<Note> right = new QueryTask(middle, to, leafSlots, colourFilter, containsX, containsY, needle).compute();
+            List<Note> results = left.join();
+            results.addAll(right);
+            return results;
+        }
+    }
+
+    @Override
+    public int[] evictionOrder(boolean byLastUsed) {
+        // Slots are in ID order already; without stamps every note was last used at 0.
+        if (!byLastUsed || lastUsed == null) {
+            int[] result = new int[live];
+            int count = 0;
+            for (int slot = 0; slot < used; slot++) {
+                if (colours[slot] != DEAD && pinCounts[slot] == 0) {
+                    result[count++] = ids[slot];
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        int count = 0;
+        long oldest = Long.MAX_VALUE;
+        long newest = Long.MIN_VALUE;
+        for (int slot = 0; slot < used; slot++) {
+            if (colours[slot] != DEAD && pinCounts[slot] == 0) {
+                oldest = Math.min(oldest, lastUsed[slot]);
+                newest = Math.max(newest, lastUsed[slot]);
+                count++;
+            }
+        }
+        // Sort (stamp, slot) pairs packed into longs, 31 bits for the slot. Stamps spanning more than
+        // the remaining 32 bits are replaced by their rank among the distinct stamps.
+        long[] ranks = null;
+        int distinct = 0;
+        if (count > 0 && newest - oldest > 0xFFFFFFFFL) {
+            ranks = new long[count];
+            for (int slot = 0; slot < used; slot++) {
+                if (colours[slot] != DEAD && pinCounts[slot] == 0) {
+                    ranks[distinct++] = lastUsed[slot];
+                }
+            }
+            Arrays.sort(ranks);
+            distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (distinct == 0 || ranks[i] != ranks[distinct - 1]) {
+                    ranks[distinct++] = ranks[i];
+                }
+            }
+        }
+        long[] keys = new long[count];
+        count = 0;
+        for (int slot = 0; slot < used; slot++) {
+            if (colours[slot] != DEAD && pinCounts[slot] == 0) {
+                long stamp = ranks != null ? Arrays.binarySearch(ranks, 0, distinct, lastUsed[slot]) : lastUsed[slot] - oldest;
+                keys[count++] = stamp << 31 | slot;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = ids[(int) (keys[i] & Integer.MAX_VALUE)];
+        }
+        return result;
+    }
+
+    @Override
+    public long unpinnedFootprint() {
+        long bytes = 0;
+        int count = 0;
+        for (int slot = 0; slot < used; slot++) {
+            if (colours[slot] != DEAD && pinCounts[slot] == 0) {
+                bytes += MessageArena.slotBytes(messageLengths[slot]);
+                count++;
+            }
+        }
+        return bytes + count * (slotBytes() + POSITION_BYTES);
+    }
+
+    @Override
+    public long footprint() {
+        return live * (slotBytes() + POSITION_BYTES) + liveMessageBytes;
+    }
+
+    @Override
+    public void checkMessage(String message) throws IllegalArgumentException {
+        // A UTF-8 character is at most 3 bytes per UTF-16 char, so most messages need no encoding here.
+        if (message != null && message.length() * 3L > MessageArena.MAX_MESSAGE_BYTES) {
+            MessageArena.checkLength(message.getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+
+    @Override
+    public long footprintOf(String message) {
+        return slotBytes() + POSITION_BYTES + (message == null ? 0 : MessageArena.slotBytes(message.getBytes(StandardCharsets.UTF_8).length));
+    }
+
+    @Override
+    public long footprintOf(int id) {
+        int slot = slotOf(id);
+        return slot < 0 ? 0 : slotBytes() + POSITION_BYTES + MessageArena.slotBytes(messageLengths[slot]);
+    }
+
+    private long slotBytes() {
+        return SLOT_BYTES + (expiresAt != null ? 8 : 0) + (lastUsed != null ? 8 : 0);
+    }
+
+    /**
+     * Finds a live note's slot by binary search over the ID column.
+     *
+     * @return The slot, or -1 if there is no live note with that ID.
+     */
+    private int slotOf(int id) {
+        int slot = Arrays.binarySearch(ids, 0, used, id);
+        return slot >= 0 && colours[slot] != DEAD ? slot : -1;
+    }
+
+    private Note toNote(int slot) {
+        String message = messages.getString(messageHandles[slot], messageLengths[slot]);
+        Note note = new Note(ids[slot], xs[slot], ys[slot], colourNames.get(colours[slot]), message, pinCounts[slot]);
+        if (expiresAt != null) {
+            note.setExpiresAt(expiresAt[slot]);
+        }
+        if (lastUsed != null) {
+            note.setLastUsed(lastUsed[slot]);
+        }
+        return note;
+    }
+
+    private void kill(int slot) {
+        colours[slot] = DEAD;
+        live--;
+        liveMessageBytes -= MessageArena.slotBytes(messageLengths[slot]);
+        messages.free(messageHandles[slot], messageLengths[slot]);
+        removePosition(pack(xs[slot], ys[slot]));
+    }
+
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private int positionIndex(long position) {
+        return (int) ((position * 0x9E3779B97F4A7C15L) >>> (64 - Integer.numberOfTrailingZeros(positions.length)));
+    }
+
+    private void addPosition(long position) {
+        if ((positionCount + 1) * 4L > positions.length * 3L) {
+            rehashPositions(positions.length * 2);
+        }
+        int i = positionIndex(position);
+        while (positions[i] != EMPTY_POSITION) {
+            if (positions[i] == position) {
+                return;
+            }
+            i = (i + 1) & (positions.length - 1);
+        }
+        positions[i] = position;
+        positionCount++;
+    }
+
+    /**
+     * Removes a position by backward-shift deletion, so no tombstones are left in the table.
+     */
+    private void removePosition(long position) {
+        int mask = positions.length - 1;
+        int i = positionIndex(position);
+        while (positions[i] != position) {
+            if (positions[i] == EMPTY_POSITION) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        positionCount--;
+        int hole = i;
+        for (int j = (hole + 1) & mask; positions[j] != EMPTY_POSITION; j = (j + 1) & mask) {
+            int home = positionIndex(positions[j]);
+            // Move the entry into the hole unless its home slot lies cyclically after the hole.
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                positions[hole] = positions[j];
+                hole = j;
+            }
+        }
+        positions[hole] = EMPTY_POSITION;
+    }
+
+    private void rehashPositions(int capacity) {
+        long[] old = positions;
+        positions = new long[capacity];
+        Arrays.fill(positions, EMPTY_POSITION);
+        positionCount = 0;
+        for (long position : old) {
+            if (position != EMPTY_POSITION) {
+                addPosition(position);
+            }
+        }
+    }
+
+    /**
+     * Slides live slots down over dead ones, keeping their order, and shrinks
+     * the arrays if most of their capacity is unused.
+     */
+    private void compact() {
+        int write = 0;
+        for (int read = 0; read < used; read++) {
+            if (colours[read] == DEAD) {
+                continue;
+            }
+            if (read != write) {
+                ids[write] = ids[read];
+                xs[write] = xs[read];
+                ys[write] = ys[read];
+                colours[write] = colours[read];
+                pinCounts[write] = pinCounts[read];
+                messageHandles[write] = messageHandles[read];
+                messageLengths[write] = messageLengths[read];
+                if (expiresAt != null) {
+                    expiresAt[write] = expiresAt[read];
+                }
+                if (lastUsed != null) {
+                    lastUsed[write] = lastUsed[read];
+                }
+            }
+            write++;
+        }
+        used = write;
+
+        if (ids.length > INITIAL_CAPACITY && used < ids.length / 4) {
+            resize(Math.max(INITIAL_CAPACITY, used * 2));
+        }
+        if (positions.length > INITIAL_CAPACITY * 2 && positionCount * 8L < positions.length) {
+            rehashPositions(Math.max(INITIAL_CAPACITY * 2, Integer.highestOneBit(positionCount) * 4));
+        }
+    }
+
+    private static int grow(int capacity, int required) {
+        long grown = Math.max((long) required, capacity + (long) (capacity >> 1));
+        if (required > MAX_CAPACITY) {
+            throw new IllegalArgumentException("MEMORY_BUDGET_EXCEEDED The board cannot hold more notes.");
+        }
+        return (int) Math.min(grown, MAX_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        xs = new int[capacity];
+        ys = new int[capacity];
+        colours = new short[capacity];
+        pinCounts = new int[capacity];
+        messageHandles = new int[capacity];
+        messageLengths = new int[capacity];
+        expiresAt = null;
+        lastUsed = null;
+        positions = new long[INITIAL_CAPACITY * 2];
+        Arrays.fill(positions, EMPTY_POSITION);
+        positionCount = 0;
+    }
+
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        colours = Arrays.copyOf(colours, capacity);
+        pinCounts = Arrays.copyOf(pinCounts, capacity);
+        messageHandles = Arrays.copyOf(messageHandles, capacity);
+        messageLengths = Arrays.copyOf(messageLengths, capacity);
+        if (expiresAt != null) {
+            expiresAt = Arrays.copyOf(expiresAt, capacity);
+        }
+        if (lastUsed != null) {
+            lastUsed = Arrays.copyOf(lastUsed, capacity);
+        }
+    }
+
+    private short ordinalOf(String colour) {
+        Short ordinal = colourOrdinals.get(colour);
+        if (ordinal == null) {
+            if (colourNames.size() == Short.MAX_VALUE) {
+                throw new IllegalArgumentException("COLOUR_NOT_SUPPORTED Too many colours for columnar storage.");
+            }
+            ordinal = (short) colourNames.size();
+            colourNames.add(colour);
+            colourOrdinals.put(colour, ordinal);
+        }
+        return ordinal;
+    }
+}
@@ -0,0 +1,45 @@
+import jdk.jfr.*;
+
+/**
+ * CommandEvent - Flight Recorder event for one client command processed by ClientConnection.
+ *
+ * Splits the command's latency into parsing and formatting, waiting for the board lock, executing
+ * under the lock, and writing the response to the socket. Disabled unless a recording enables it.
+ */
+@Name("bboard.Command")
+@Label("Command")
+@Category({"Bulletin Board"})
+@Description("A client command with its phase timings")
+@StackTrace(false)
+public class CommandEvent extends Event {
+    @Label("Client")
+    int clientId;
+
+    @Label("Board")
+    String board;
+
+    @Label("Command")
+    String command;
+
+    @Label("Error")
+    boolean error;
+
+    @Label("Result Size")
+    int resultSize;
+
+    @Label("Parse and Format")
+    @Timespan(Timespan.NANOSECONDS)
+    long parse;
+
+    @Label("Lock Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWait;
+
+    @Label("Execute")
+    @Timespan(Timespan.NANOSECONDS)
+    long execute;
+
+    @Label("Write Response")
+    @Timespan(Timespan.NANOSECONDS)
+    long write;
+}
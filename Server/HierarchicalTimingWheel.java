@@ -0,0 +1,126 @@
+import java.util.*;
+
+/**
+ * HierarchicalTimingWheel - Timing wheels stacked in levels, for deadlines from seconds to months.
+ *
+ * Level 0 has one slot per tick, and each level above has slots as wide as a whole rotation of the
+ * level below (64 slots per level, 4 levels: 64^4 ticks in total). An item is placed in the lowest
+ * level whose range covers its deadline. When a lower level completes a rotation, the next slot of
+ * the level above is cascaded down, so every item is touched only once per level on its way to
+ * level 0, however far away its deadline is. Scheduling is O(1), and so is each tick apart from the
+ * items that cascade or expire.
+ *
+ * Not thread-safe: one thread schedules and advances (see NoteExpirer).
+ *
+ * @param <T> Type of the scheduled items.
+ */
+public class HierarchicalTimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+
+    private static final class Entry<T> {
+        final T item;
+        final long deadlineTick;
+
+        Entry(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private final List<List<Entry<T>>> slots; // [level * SLOTS + slot], created on first use.
+    private long currentTick;
+    private int size;
+
+    public HierarchicalTimingWheel() {
+        this.slots = new ArrayList<>(Collections.nCopies(LEVELS * SLOTS, null));
+    }
+
+    /**
+     * Schedules an item. Items whose deadline has already passed expire on the next advance.
+     *
+     * @param item Item to schedule.
+     * @param deadlineTick Tick at which the item expires.
+     */
+    public void schedule(T item, long deadlineTick) {
+        insert(new Entry<>(item, Math.max(deadlineTick, currentTick + 1)));
+        size++;
+    }
+
+    /**
+     * Moves the wheel forward one tick.
+     *
+     * @return Items whose deadline is the new current tick.
+     */
+    public List<T> advance() {
+        currentTick++;
+
+        // Cascade from the top down, so items moved from a high level can land in a lower slot cascaded now.
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                List<Entry<T>> cascading = takeSlot(level, (int) ((currentTick >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+                for (Entry<T> entry : cascading) {
+                    insert(entry);
+                }
+            }
+        }
+
+        List<Entry<T>> due = takeSlot(0, (int) (currentTick & (SLOTS - 1)));
+        List<T> expired = new ArrayList<>(due.size());
+        for (Entry<T> entry : due) {
+            expired.add(entry.item);
+        }
+        size -= expired.size();
+        return expired;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Gets the number of scheduled items.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void insert(Entry<T> entry) {
+        long delta = entry.deadlineTick - currentTick;
+        if (delta <= 0) {
+            // Only reached while cascading an item due this tick; level 0 is emptied right after.
+            slot(0, (int) (currentTick & (SLOTS - 1))).add(entry);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                slot(level, (int) ((entry.deadlineTick >>> (SLOT_BITS * level)) & (SLOTS - 1))).add(entry);
+                return;
+            }
+        }
+        // Beyond the wheel's range: park it in the top-level slot cascaded last, where it is re-placed.
+        int lastSlot = (int) (((currentTick >>> (SLOT_BITS * (LEVELS - 1))) - 1) & (SLOTS - 1));
+        slot(LEVELS - 1, lastSlot).add(entry);
+    }
+
+    private List<Entry<T>> slot(int level, int index) {
+        int position = level * SLOTS + index;
+        List<Entry<T>> list = slots.get(position);
+        if (list == null) {
+            list = new ArrayList<>();
+            slots.set(position, list);
+        }
+        return list;
+    }
+
+    private List<Entry<T>> takeSlot(int level, int index) {
+        int position = level * SLOTS + index;
+        List<Entry<T>> list = slots.get(position);
+        if (list == null || list.isEmpty()) {
+            return Collections.emptyList();
+        }
+        slots.set(position, null);
+        return list;
+    }
+}
@@ -0,0 +1,239 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MessageArena - Stores note messages as UTF-8 bytes in large buffers, on or off the Java heap.
+ *
+ * Messages live in slots carved out of chunk buffers. Chunks start at 64 KB and double up to
+ * 64 MB. With direct buffers the bytes sit outside the heap, so the garbage collector neither
+ * scans nor copies them, however many notes the board holds.
+ *
+ * Slot sizes are rounded up to size classes: multiples of 16 bytes up to 1 KB, then powers of two.
+ * A freed slot goes on its class's free list and is reused by the next message of that class, so
+ * space freed by SHAKE, expiry or eviction is recycled without moving any bytes. CLEAR drops
+ * everything at once.
+ *
+ * A slot is named by an int handle: the chunk index in the high bits, and the offset in 16-byte
+ * units in the low 22 bits. Not thread-safe; ColumnarNoteStore only uses it under the board lock.
+ */
+public class MessageArena {
+    private static final int UNIT_SHIFT = 4; // Slots are aligned to 16 bytes.
+    private static final int OFFSET_BITS = 22; // Unit offset within a chunk; 2^22 units is 64 MB.
+    private static final int OFFSET_MASK = (1 << OFFSET_BITS) - 1;
+    private static final int MAX_CHUNKS = 1 << (31 - OFFSET_BITS); // Keeps handles non-negative.
+    private static final int FIRST_CHUNK_BYTES = 64 * 1024;
+    private static final int MAX_CHUNK_BYTES = 1 << (OFFSET_BITS + UNIT_SHIFT);
+    public static final int MAX_MESSAGE_BYTES = MAX_CHUNK_BYTES; // A message must fit in one chunk.
+    private static final int LINEAR_CLASSES = 64; // Classes 1..64 are 16..1024 bytes; above that, powers of two.
+
+    private final boolean direct;
+    private final List<ByteBuffer> chunks;
+    private int[][] freeSlots; // Per size class, a stack of free handles.
+    private int[] freeCounts;
+    private int top; // Bytes used in the last chunk.
+    private long allocatedBytes; // Bytes in slots currently handed out.
+
+    /**
+     * Creates a new, empty MessageArena.
+     *
+     * @param direct true to allocate chunks off the Java heap.
+     */
+    public MessageArena(boolean direct) {
+        this.direct = direct;
+        this.chunks = new ArrayList<>();
+        clear();
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * Copies a message into a slot.
+     *
+     * @param bytes UTF-8 message bytes.
+     * @return Handle of the slot, or 0 for an empty message (which takes no slot).
+     * @throws IllegalArgumentException if the message is larger than a chunk or the arena is full.
+     */
+    public int allocate(byte[] bytes) throws IllegalArgumentException {
+        if (bytes.length == 0) {
+            return 0;
+        }
+        checkLength(bytes.length);
+        int sizeClass = sizeClass(bytes.length);
+        int slotBytes = classBytes(sizeClass);
+        int handle;
+        if (freeCounts[sizeClass] > 0) {
+            handle = freeSlots[sizeClass][--freeCounts[sizeClass]];
+        } else {
+            if (chunks.isEmpty() || top + slotBytes > chunks.get(chunks.size() - 1).capacity()) {
+                addChunk(slotBytes);
+            }
+            handle = ((chunks.size() - 1) << OFFSET_BITS) | (top >>> UNIT_SHIFT);
+            top += slotBytes;
+        }
+
+        ByteBuffer view = chunks.get(handle >>> OFFSET_BITS).duplicate();
+        view.position(offset(handle));
+        view.put(bytes);
+        allocatedBytes += slotBytes;
+        return handle;
+    }
+
+    /**
+     * Checks that a message fits in a slot.
+     *
+     * @param length Message length in UTF-8 bytes.
+     * @throws IllegalArgumentException if the message is larger than a chunk.
+     */
+    public static void checkLength(int length) throws IllegalArgumentException {
+        if (length > MAX_MESSAGE_BYTES) {
+            throw new IllegalArgumentException("INVALID_FORMAT Message is longer than " + MAX_MESSAGE_BYTES + " bytes.");
+        }
+    }
+
+    /**
+     * Returns a message's slot to its free list.
+     *
+     * @param handle Handle returned by allocate().
+     * @param length Message length in bytes.
+     */
+    public void free(int handle, int length) {
+        if (length == 0) {
+            return;
+        }
+        int sizeClass = sizeClass(length);
+        if (freeCounts[sizeClass] == freeSlots[sizeClass].length) {
+            freeSlots[sizeClass] = Arrays.copyOf(freeSlots[sizeClass], freeCounts[sizeClass] * 2);
+        }
+        freeSlots[sizeClass][freeCounts[sizeClass]++] = handle;
+        allocatedBytes -= classBytes(sizeClass);
+    }
+
+    /**
+     * Decodes a message.
+     *
+     * @param handle Handle returned by allocate().
+     * @param length Message length in bytes.
+     * @return The message.
+     */
+    public String getString(int handle, int length) {
+        if (length == 0) {
+            return "";
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer view = chunks.get(handle >>> OFFSET_BITS).duplicate();
+        view.position(offset(handle));
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks a message for a UTF-8 substring without decoding it. UTF-8 is self-synchronising, so a
+     * byte match is a character match.
+     *
+     * @param handle Handle returned by allocate().
+     * @param length Message length in bytes.
+     * @param needle UTF-8 bytes to look for.
+     * @return true if the message contains the needle.
+     */
+    public boolean contains(int handle, int length, byte[] needle) {
+        if (needle.length == 0) {
+            return true;
+        }
+        if (length < needle.length) {
+            return false;
+        }
+        ByteBuffer chunk = chunks.get(handle >>> OFFSET_BITS);
+        int start = offset(handle);
+        int last = start + length - needle.length;
+        byte first = needle[0];
+        for (int i = start; i <= last; i++) {
+            if (chunk.get(i) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < needle.length && chunk.get(i + j) == needle[j]) {
+                j++;
+            }
+            if (j == needle.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the slot size a message of this length takes.
+     *
+     * @param length Message length in bytes.
+     * @return Slot size in bytes.
+     */
+    public static int slotBytes(int length) {
+        return length == 0 ? 0 : classBytes(sizeClass(length));
+    }
+
+    /**
+     * Gets the bytes in slots currently holding messages.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Gets the bytes reserved in chunks, including free slots and unused chunk space.
+     */
+    public long getReservedBytes() {
+        long total = 0;
+        for (ByteBuffer chunk : chunks) {
+            total += chunk.capacity();
+        }
+        return total;
+    }
+
+    /**
+     * Frees every slot and releases all chunks.
+     */
+    public void clear() {
+        chunks.clear();
+        int classes = sizeClass(MAX_CHUNK_BYTES) + 1;
+        freeSlots = new int[classes][16];
+        freeCounts = new int[classes];
+        top = 0;
+        allocatedBytes = 0;
+    }
+
+    private void addChunk(int slotBytes) {
+        if (chunks.size() == MAX_CHUNKS) {
+            throw new IllegalArgumentException("MEMORY_BUDGET_EXCEEDED The board's message storage is full.");
+        }
+        int capacity = chunks.isEmpty() ? FIRST_CHUNK_BYTES
+                : (int) Math.min(MAX_CHUNK_BYTES, chunks.get(chunks.size() - 1).capacity() * 2L);
+        capacity = Math.max(capacity, slotBytes);
+        chunks.add(direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+        top = 0;
+    }
+
+    private static int offset(int handle) {
+        return (handle & OFFSET_MASK) << UNIT_SHIFT;
+    }
+
+    private static int sizeClass(int length) {
+        int units = (length + (1 << UNIT_SHIFT) - 1) >>> UNIT_SHIFT;
+        if (units <= LINEAR_CLASSES) {
+            return units;
+        }
+        // Powers of two: 2048 bytes is class 65, 4096 class 66, and so on.
+        return LINEAR_CLASSES + (32 - Integer.numberOfLeadingZeros(units - 1)) - 6;
+    }
+
+    private static int classBytes(int sizeClass) {
+        if (sizeClass <= LINEAR_CLASSES) {
+            return sizeClass << UNIT_SHIFT;
+        }
+        return 1 << (sizeClass - LINEAR_CLASSES + 6 + UNIT_SHIFT);
+    }
+}
@@ -0,0 +1,252 @@
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.*;
+import java.lang.management.*;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Executors;
+
+/**
+ * MetricsHttpServer - Optional embedded HTTP endpoint exposing server and JVM telemetry.
+ *
+ * Serves GET /metrics in the Prometheus text exposition format:
+ * - Per-command request and error counters and latency summaries (from ServerMetrics).
+ * - Connection and traffic counters.
+ * - Note, pin and version gauges for every hosted board.
+ * - JVM thread counts, heap usage, GC collection counts and times, and a GC pause summary.
+ *
+ * Uses only the JDK's built-in com.sun.net.httpserver, on its own single daemon thread,
+ * so scrapes never compete with client connection threads for more than one core.
+ */
+public class MetricsHttpServer {
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private final int port;
+    private final BoardRegistry registry;
+    private final ServerMetrics metrics;
+    private final LatencyHistogram gcPauses; // Stop-the-world pause durations in microseconds.
+
+    /**
+     * Creates a new MetricsHttpServer.
+     *
+     * @param port Port to serve /metrics on.
+     * @param registry The hosted boards.
+     * @param metrics Server-wide counters.
+     */
+    public MetricsHttpServer(int port, BoardRegistry registry, ServerMetrics metrics) {
+        this.port = port;
+        this.registry = registry;
+        this.metrics = metrics;
+        this.gcPauses = new LatencyHistogram();
+    }
+
+    /**
+     * Starts serving metrics and listening for GC pauses.
+     *
+     * @throws IOException if the port cannot be opened.
+     */
+    public void start() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/metrics", this::handleMetrics);
+        server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+
+        listenForGcPauses();
+        System.out.println("Metrics available at http://localhost:" + port + "/metrics");
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Renders all metrics in the Prometheus text format.
+     */
+    private String render() {
+        StringBuilder sb = new StringBuilder();
+
+        // Commands.
+        header(sb, "bboard_requests_total", "counter", "Commands processed, by command.");
+        for (String command : ServerMetrics.COMMANDS) {
+            sample(sb, "bboard_requests_total", "command", command.toLowerCase(), metrics.getRequests(command));
+        }
+        header(sb, "bboard_errors_total", "counter", "Commands answered with ERROR, by command.");
+        for (String command : ServerMetrics.COMMANDS) {
+            sample(sb, "bboard_errors_total", "command", command.toLowerCase(), metrics.getErrors(command));
+        }
+        header(sb, "bboard_request_latency_seconds", "summary", "Time from receiving a command to writing its response.");
+        for (String command : ServerMetrics.COMMANDS) {
+            summary(sb, "bboard_request_latency_seconds", "command=\"" + command.toLowerCase() + "\"", metrics.getLatency(command));
+        }
+
+        // Connections and traffic.
+        header(sb, "bboard_connections_active", "gauge", "Currently connected clients.");
+        sample(sb, "bboard_connections_active", null, null, metrics.getActiveConnections());
+        header(sb, "bboard_connections_total", "counter", "Client connections accepted.");
+        sample(sb, "bboard_connections_total", null, null, metrics.getTotalConnections());
+        header(sb, "bboard_connections_reaped_total", "counter", "Connections closed by the server after a timeout, by reason.");
+        sample(sb, "bboard_connections_reaped_total", "reason", "idle", metrics.getReapedIdle());
+        sample(sb, "bboard_connections_reaped_total", "reason", "read", metrics.getReapedRead());
+        header(sb, "bboard_not_modified_total", "counter", "GET IFCHANGED requests answered with NOT_MODIFIED.");
+        sample(sb, "bboard_not_modified_total", null, null, metrics.getNotModified());
+        header(sb, "bboard_compressed_responses_total", "counter", "Responses sent as DEFLATE lines.");
+        sample(sb, "bboard_compressed_responses_total", null, null, metrics.getCompressedResponses());
+        header(sb, "bboard_compressed_bytes_total", "counter", "Size of compressed responses, before (raw) and after (wire) compression.");
+        sample(sb, "bboard_compressed_bytes_total", "stage", "raw", metrics.getCompressedRawBytes());
+        sample(sb, "bboard_compressed_bytes_total", "stage", "wire", metrics.getCompressedWireBytes());
+        header(sb, "bboard_received_bytes_total", "counter", "Bytes received from clients.");
+        sample(sb, "bboard_received_bytes_total", null, null, metrics.getBytesIn());
+        header(sb, "bboard_sent_bytes_total", "counter", "Bytes sent to clients.");
+        sample(sb, "bboard_sent_bytes_total", null, null, metrics.getBytesOut());
+
+        // Boards.
+        List<BoardState> boards = registry.getBoards();
+        header(sb, "bboard_notes", "gauge", "Notes on the board.");
+        for (BoardState board : boards) {
+            sample(sb, "bboard_notes", "board", board.getName(), board.getNoteCount());
+        }
+        header(sb, "bboard_pins", "gauge", "Pins on the board.");
+        for (BoardState board : boards) {
+            sample(sb, "bboard_pins", "board", board.getName(), board.getPinCount());
+        }
+        header(sb, "bboard_version", "counter", "Mutations applied to the board.");
+        for (BoardState board : boards) {
+            sample(sb, "bboard_version", "board", board.getName(), board.getVersion());
+        }
+
+        header(sb, "bboard_memory_bytes", "gauge", "Estimated heap held by the board's notes, messages and pins.");
+        for (BoardState board : boards) {
+            sample(sb, "bboard_memory_bytes", "board", board.getName(), board.getFootprint());
+        }
+        header(sb, "bboard_memory_budget_bytes", "gauge", "Memory budget of the board (0 = unlimited).");
+        for (BoardState board : boards) {
+            sample(sb, "bboard_memory_budget_bytes", "board", board.getName(), board.getMemoryBudget());
+        }
+        header(sb, "bboard_notes_evicted_total", "counter", "Unpinned notes evicted to stay within the memory budget.");
+        for (BoardState board : boards) {
+            sample(sb, "bboard_notes_evicted_total", "board", board.getName(), board.getEvictedCount());
+        }
+        header(sb, "bboard_notes_expired_total", "counter", "Notes removed because their time-to-live ran out.");
+        for (BoardState board : boards) {
+            sample(sb, "bboard_notes_expired_total", "board", board.getName(), board.getExpiredCount());
+        }
+        header(sb, "bboard_lock_contended_total", "counter", "Board operations that had to wait for the board lock.");
+        for (BoardState board : boards) {
+            sample(sb, "bboard_lock_contended_total", "board", board.getName(), board.getLockProfiler().getContended());
+        }
+
+        // JVM threads.
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        header(sb, "jvm_threads_live", "gauge", "Live threads.");
+        sample(sb, "jvm_threads_live", null, null, threads.getThreadCount());
+        header(sb, "jvm_threads_daemon", "gauge", "Live daemon threads.");
+        sample(sb, "jvm_threads_daemon", null, null, threads.getDaemonThreadCount());
+        header(sb, "jvm_threads_peak", "gauge", "Peak live threads since start.");
+        sample(sb, "jvm_threads_peak", null, null, threads.getPeakThreadCount());
+
+        // JVM heap.
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        header(sb, "jvm_memory_heap_used_bytes", "gauge", "Heap in use.");
+        sample(sb, "jvm_memory_heap_used_bytes", null, null, heap.getUsed());
+        header(sb, "jvm_memory_heap_committed_bytes", "gauge", "Heap committed by the JVM.");
+        sample(sb, "jvm_memory_heap_committed_bytes", null, null, heap.getCommitted());
+        header(sb, "jvm_memory_heap_max_bytes", "gauge", "Maximum heap size (-1 if undefined).");
+        sample(sb, "jvm_memory_heap_max_bytes", null, null, heap.getMax());
+
+        // JVM garbage collection.
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        header(sb, "jvm_gc_collections_total", "counter", "Collections, by collector.");
+        for (GarbageCollectorMXBean gc : collectors) {
+            sample(sb, "jvm_gc_collections_total", "gc", gc.getName(), gc.getCollectionCount());
+        }
+        header(sb, "jvm_gc_collection_seconds_total", "counter", "Time spent in collections, by collector.");
+        for (GarbageCollectorMXBean gc : collectors) {
+            sample(sb, "jvm_gc_collection_seconds_total", "gc", gc.getName(), gc.getCollectionTime() / 1000.0);
+        }
+        header(sb, "jvm_gc_pause_seconds", "summary", "Stop-the-world GC pause durations.");
+        summary(sb, "jvm_gc_pause_seconds", null, gcPauses);
+
+        return sb.toString();
+    }
+
+    /**
+     * Records the duration of every stop-the-world collection reported by the JVM.
+     */
+    private void listenForGcPauses() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter)) {
+                continue;
+            }
+            ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                // Concurrent cycles run alongside the application and are not pauses.
+                if (info.getGcName().contains("Concurrent") || info.getGcAction().contains("concurrent")) {
+                    return;
+                }
+                gcPauses.record(info.getGcInfo().getDuration() * 1000);
+            }, null, null);
+        }
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(" ").append(help).append("\n");
+        sb.append("# TYPE ").append(name).append(" ").append(type).append("\n");
+    }
+
+    private static void sample(StringBuilder sb, String name, String label, String labelValue, double value) {
+        sb.append(name);
+        if (label != null) {
+            sb.append("{").append(label).append("=\"").append(escape(labelValue)).append("\"}");
+        }
+        sb.append(" ").append(format(value)).append("\n");
+    }
+
+    /**
+     * Writes a microsecond histogram as a Prometheus summary in seconds.
+     */
+    private static void summary(StringBuilder sb, String name, String labels, LatencyHistogram histogram) {
+        String prefix = labels == null ? "" : labels + ",";
+        for (double quantile : QUANTILES) {
+            sb.append(name).append("{").append(prefix).append("quantile=\"").append(quantile).append("\"} ")
+              .append(format(histogram.getPercentile(quantile * 100) / 1e6)).append("\n");
+        }
+        String suffix = labels == null ? "" : "{" + labels + "}";
+        sb.append(name).append("_sum").append(suffix).append(" ").append(format(histogram.getSum() / 1e6)).append("\n");
+        sb.append(name).append("_count").append(suffix).append(" ").append(histogram.getCount()).append("\n");
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
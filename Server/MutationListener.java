@@ -0,0 +1,24 @@
+/**
+ * MutationListener - Receives every state-changing operation applied to a BoardState.
+ *
+ * Listeners are invoked while the board lock is held, in version order, so they must not block.
+ * Mutations use a replayable text form:
+ * - POST <id> <x> <y> <colour> <message>
+ * - PIN <x> <y>
+ * - UNPIN <x> <y>
+ * - SHAKE
+ * - CLEAR
+ * - EXPIRE <id1,id2,...>
+ * - EVICT <id1,id2,...>
+ */
+public interface MutationListener {
+
+    /**
+     * Called after a mutation has been applied.
+     *
+     * @param board The board that changed.
+     * @param version The board version after the mutation.
+     * @param mutation The mutation in replayable form.
+     */
+    void onMutation(BoardState board, long version, String mutation);
+}
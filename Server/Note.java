@@ -1,6 +1,3 @@
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * Notes are rectangular objects that are placed such that they completely fit within the boundaries of the board and do not completely overlap. 
  * 
@@ -9,7 +6,7 @@ import java.util.Set;
  * - A unique (x, y) coordinate for its upper-left corner.
  * - A colour that has been selected from the server’s list of supported colours (defined at startup).
  * - A text message string.
- * - Potential set of pin coordinates for any pins 'pinning' the note.
+ * - The number of pins 'pinning' the note (the board keeps which pins they are).
  */
 public class Note {
     private final int id;
@@ -17,7 +14,9 @@ public class Note {
     private final int y;
     private final String colour;
     private final String message;
-    private final Set<String> pins; // "X, Y" coordinates of pins on the note.
+    private int pinCount; // Number of pins holding the note.
+    private long expiresAt; // System.nanoTime() after which the unpinned note expires, 0 = never.
+    private long lastUsed; // Board use clock when the note was last posted or returned by a query.
 
     /**
      * Creates a new Note.
@@ -29,6 +28,20 @@ public class Note {
      * @param message Note message content.
      */
     public Note(int id, int x, int y, String colour, String message) {
+        this(id, x, y, colour, message, 0);
+    }
+
+    /**
+     * Creates a Note held by some pins, e.g. when a NoteStore rebuilds one from its columns.
+     * 
+     * @param id Unique server-assigned identifier.
+     * @param x X-coordinate of upper-left corner.
+     * @param y Y-coordinate of upper-left corner.
+     * @param colour Note colour (must be valid).
+     * @param message Note message content.
+     * @param pinCount Number of pins holding the note.
+     */
+    public Note(int id, int x, int y, String colour, String message, int pinCount) {
         this.id = id;
         this.x = x;
         this.y = y;
@@ -38,7 +51,7 @@ public class Note {
         } else {
             this.message = "";
         }
-        this.pins = new HashSet<>();
+        this.pinCount = pinCount;
     }
 
     public int getId() {
@@ -61,6 +74,32 @@ public class Note {
         return message;
     }
 
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public long getLastUsed() {
+        return lastUsed;
+    }
+
+    public void setLastUsed(long lastUsed) {
+        this.lastUsed = lastUsed;
+    }
+
+    /**
+     * Checks if this note has a time-to-live that has run out.
+     * 
+     * @param now Current System.nanoTime().
+     * @return true if the note has a TTL and it has passed.
+     */
+    public boolean isExpired(long now) {
+        return expiresAt != 0 && now - expiresAt >= 0;
+    }
+
     /**
      * Checks if this note contains the given coordinate.
      * 
@@ -75,23 +114,28 @@ public class Note {
     }
 
     /**
-     * Adds a pin at the specified coordinate to this note.
+     * Records one more pin holding this note.
+     */
+    public void addPin() {
+        pinCount++;
+    }
+
+    /**
+     * Records one pin less holding this note.
      * 
-     * @param px Pin's X-coordinate.
-     * @param py Pin's Y-coordinate.
+     * @return Number of pins still holding the note.
      */
-    public void addPin(int px, int py) {
-        pins.add(px + "," + py);
+    public int removePin() {
+        return --pinCount;
     }
 
     /**
-     * Removes a pin at the specified coordinate from this note.
+     * Gets the number of pins attached to this note.
      * 
-     * @param px Pin's X-coordinate.
-     * @param py Pin's Y-coordinate.
+     * @return Pin count.
      */
-    public void removePin(int px, int py) {
-        pins.remove(px + "," + py);
+    public int getPinCount() {
+        return pinCount;
     }
 
     /**
@@ -101,7 +145,7 @@ public class Note {
      * @return true if the note has one or more pins.
      */
     public boolean isPinned() {
-        return !pins.isEmpty();
+        return pinCount > 0;
     }
 
     /**
@@ -0,0 +1,121 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NoteExpirer - Removes notes whose time-to-live has run out.
+ *
+ * Boards hand every note posted with a TTL to the expirer, which keeps them in a
+ * HierarchicalTimingWheel on its own daemon thread. Each tick, the notes that came due are grouped
+ * by board and removed through BoardState.expireNotes in batches of at most BATCH_SIZE, so the board
+ * lock is only ever held for one short batch at a time and clients get the lock in between.
+ *
+ * Notes that were removed by other means before their deadline are simply skipped, and notes that
+ * are pinned when they come due are kept; the board reschedules them when their last pin is removed.
+ */
+public class NoteExpirer {
+    private static final int BATCH_SIZE = 128;
+
+    private static final class Scheduled {
+        final BoardState board;
+        final int noteId;
+        final long deadlineNanos; // System.nanoTime() at which the note expires.
+
+        Scheduled(BoardState board, int noteId, long deadlineNanos) {
+            this.board = board;
+            this.noteId = noteId;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final HierarchicalTimingWheel<Scheduled> wheel; // Only touched by the expiry thread.
+    private final ConcurrentLinkedQueue<Scheduled> incoming;
+
+    /**
+     * Creates and starts a new NoteExpirer.
+     *
+     * @param tickMillis Resolution of note expiry.
+     */
+    public NoteExpirer(long tickMillis) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.startNanos = System.nanoTime();
+        this.wheel = new HierarchicalTimingWheel<>();
+        this.incoming = new ConcurrentLinkedQueue<>();
+
+        Thread thread = new Thread(this::run, "note-expiry");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Schedules a note for removal. Safe to call from any thread, including while holding the board lock.
+     *
+     * @param board Board holding the note.
+     * @param noteId The note's ID.
+     * @param deadlineNanos System.nanoTime() at which the note expires.
+     */
+    public void schedule(BoardState board, int noteId, long deadlineNanos) {
+        incoming.add(new Scheduled(board, noteId, deadlineNanos));
+    }
+
+    private void run() {
+        while (true) {
+            long tick = wheel.getCurrentTick() + 1;
+            long sleepNanos = startNanos + tick * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            Scheduled scheduled;
+            while ((scheduled = incoming.poll()) != null) {
+                // Round up, so a note never expires before its TTL.
+                long deadlineTick = (scheduled.deadlineNanos - startNanos + tickNanos - 1) / tickNanos;
+                wheel.schedule(scheduled, deadlineTick);
+            }
+
+            List<Scheduled> due = wheel.advance();
+            if (!due.isEmpty()) {
+                expire(due);
+            }
+        }
+    }
+
+    /**
+     * Removes due notes board by board, one batch per lock acquisition.
+     */
+    private void expire(List<Scheduled> due) {
+        Map<BoardState, List<Integer>> byBoard = new LinkedHashMap<>();
+        for (Scheduled scheduled : due) {
+            byBoard.computeIfAbsent(scheduled.board, b -> new ArrayList<>()).add(scheduled.noteId);
+        }
+
+        for (Map.Entry<BoardState, List<Integer>> entry : byBoard.entrySet()) {
+            List<Integer> ids = entry.getValue();
+            for (int start = 0; start < ids.size(); start += BATCH_SIZE) {
+                List<Integer> batch = ids.subList(start, Math.min(ids.size(), start + BATCH_SIZE));
+                int[] noteIds = new int[batch.size()];
+                for (int i = 0; i < noteIds.length; i++) {
+                    noteIds[i] = batch.get(i);
+                }
+                try {
+                    entry.getKey().expireNotes(noteIds);
+                } catch (RuntimeException e) {
+                    System.err.println("Error expiring notes on board '" + entry.getKey().getName() + "': " + e.getMessage() + ".");
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of notes waiting in the wheel (including ones already removed by other means).
+     */
+    public int getPending() {
+        return wheel.size() + incoming.size();
+    }
+}
@@ -0,0 +1,195 @@
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * NoteStore - Storage engine for the notes on one board.
+ *
+ * BoardState keeps pins, versions and validation, and delegates everything that touches individual
+ * notes here, including the scans behind POST overlap checks, PIN and GET. Two engines exist:
+ * - ObjectNoteStore - one Note object per note in a hash map (the default).
+ * - ColumnarNoteStore - parallel primitive arrays, for boards with millions of notes.
+ *
+ * Notes are always added in ascending ID order. A store only tracks how many pins hold each note;
+ * which pins those are is kept by the board. Implementations are not thread-safe: BoardState only
+ * calls them while holding its lock.
+ */
+public interface NoteStore {
+
+    /**
+     * Gets the engine's name, as used by the --store option.
+     */
+    String getType();
+
+    /**
+     * Adds a note.
+     *
+     * @param id Note ID, greater than every ID added before.
+     * @param x X-coordinate of upper-left corner.
+     * @param y Y-coordinate of upper-left corner.
+     * @param colour Note colour.
+     * @param message Note message.
+     */
+    void add(int id, int x, int y, String colour, String message);
+
+    /**
+     * Removes a note.
+     *
+     * @param id Note ID.
+     * @return true if the note existed.
+     */
+    boolean remove(int id);
+
+    /**
+     * Removes every note.
+     */
+    void clear();
+
+    /**
+     * Removes every note that no pin holds.
+     *
+     * @return IDs of the removed notes.
+     */
+    int[] removeUnpinned();
+
+    int size();
+
+    boolean contains(int id);
+
+    /**
+     * Gets a note. Columnar stores build a new Note, so changes to it are not written back.
+     *
+     * @param id Note ID.
+     * @return The note, or null if there is none with that ID.
+     */
+    Note get(int id);
+
+    /**
+     * Gets a note's colour without building a Note.
+     *
+     * @param id Note ID.
+     * @return The colour, or null if there is no note with that ID.
+     */
+    String colourOf(int id);
+
+    /**
+     * Gets the IDs of all notes in ascending order.
+     */
+    int[] ids();
+
+    /**
+     * Records one more pin holding a note.
+     *
+     * @param id Note ID.
+     */
+    void addPin(int id);
+
+    /**
+     * Records one pin less holding a note.
+     *
+     * @param id Note ID.
+     * @return Number of pins still holding the note, or -1 if there is no note with that ID.
+     */
+    int removePin(int id);
+
+    void setExpiresAt(int id, long expiresAt);
+
+    /**
+     * Makes room for expiry deadlines or last-use stamps before they are first set, so the memory
+     * they take is already in the footprint when the board checks its budget.
+     *
+     * @param expiresAt true if notes will get expiry deadlines.
+     * @param lastUsed true if notes will get last-use stamps.
+     */
+    void reserveColumns(boolean expiresAt, boolean lastUsed);
+
+    void setLastUsed(int id, long lastUsed);
+
+    /**
+     * Checks if a note has its upper-left corner at a coordinate.
+     */
+    boolean hasNoteAt(int x, int y);
+
+    /**
+     * Gets the IDs of the notes that contain a coordinate.
+     *
+     * @param px X-coordinate.
+     * @param py Y-coordinate.
+     * @return Matching IDs, possibly empty.
+     */
+    int[] idsContaining(int px, int py);
+
+    /**
+     * Gets the notes matching all given filters. With a pool, the scan is split across its threads
+     * and the parts are merged back in the order a sequential scan would return them (ID order
+     * for ColumnarNoteStore). The calling thread waits for the result, so the store is still only
+     * read while the board lock is held.
+     *
+     * @param colour Colour filter (null = no filter).
+     * @param containsX X-coordinate for contains filter (-1 = no filter).
+     * @param containsY Y-coordinate for contains filter (-1 = no filter).
+     * @param refersTo Substring filter (null = no filter).
+     * @param pool Pool to split the scan across, or null to scan on the calling thread.
+     * @return Matching notes.
+     */
+    List<Note> query(String colour, int containsX, int containsY, String refersTo, ForkJoinPool pool);
+
+    /**
+     * Gets the notes among the given IDs that match all given filters, for queries whose candidates
+     * come from an index rather than a scan.
+     *
+     * @param ids Candidate note IDs; IDs with no note are skipped.
+     * @param colour Colour filter (null = no filter).
+     * @param containsX X-coordinate for contains filter (-1 = no filter).
+     * @param containsY Y-coordinate for contains filter (-1 = no filter).
+     * @param refersTo Substring filter (null = no filter).
+     * @return Matching notes, in the order of the IDs.
+     */
+    List<Note> select(int[] ids, String colour, int containsX, int containsY, String refersTo);
+
+    /**
+     * Gets the IDs of unpinned notes in eviction order.
+     *
+     * @param byLastUsed true to order by last use, false by ID (least recently posted first).
+     * @return IDs, first to evict first.
+     */
+    int[] evictionOrder(boolean byLastUsed);
+
+    /**
+     * Gets the estimated memory held by the stored notes.
+     *
+     * @return Estimated bytes.
+     */
+    long footprint();
+
+    /**
+     * Gets the estimated memory held by the notes that no pin holds, which eviction could free.
+     *
+     * @return Estimated bytes.
+     */
+    long unpinnedFootprint();
+
+    /**
+     * Checks that a message can be stored, so a POST that would fail is rejected before the board
+     * evicts anything to make room for it.
+     *
+     * @param message Note message.
+     * @throws IllegalArgumentException if the message is too long for this store.
+     */
+    void checkMessage(String message) throws IllegalArgumentException;
+
+    /**
+     * Estimates the memory a note with this message would add.
+     *
+     * @param message Note message.
+     * @return Estimated bytes.
+     */
+    long footprintOf(String message);
+
+    /**
+     * Gets the estimated memory held by one stored note.
+     *
+     * @param id Note ID.
+     * @return Estimated bytes, or 0 if there is no note with that ID.
+     */
+    long footprintOf(int id);
+}
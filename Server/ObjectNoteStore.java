@@ -0,0 +1,268 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * ObjectNoteStore - Keeps each note as a Note object in a hash map keyed by ID.
+ *
+ * Simple and fast for the board sizes the protocol was designed for, but every note costs a Note,
+ * a map entry, a boxed ID and a String on the heap, and scans chase a pointer per note.
+ * ColumnarNoteStore is the alternative for very large boards.
+ */
+public class ObjectNoteStore implements NoteStore {
+    // Estimated heap cost (64-bit JVM, compressed references): the Note, its map entry, table slot
+    // and boxed ID, and its message String header.
+    private static final long NOTE_BYTES = 152;
+    private static final long MESSAGE_CHAR_BYTES = 2; // Worst case; Latin-1 messages take one byte per char.
+
+    private final int noteWidth;
+    private final int noteHeight;
+    private final Map<Integer, Note> notes; // note_id -> Note.
+    private long bytes; // Estimated bytes held by the notes.
+
+    /**
+     * Creates a new ObjectNoteStore.
+     *
+     * @param noteWidth Width of all notes.
+     * @param noteHeight Height of all notes.
+     */
+    public ObjectNoteStore(int noteWidth, int noteHeight) {
+        this.noteWidth = noteWidth;
+        this.noteHeight = noteHeight;
+        this.notes = new HashMap<>();
+    }
+
+    @Override
+    public String getType() {
+        return "object";
+    }
+
+    @Override
+    public void add(int id, int x, int y, String colour, String message) {
+        Note note = new Note(id, x, y, colour, message);
+        notes.put(id, note);
+        bytes += footprintOf(note.getMessage());
+    }
+
+    @Override
+    public boolean remove(int id) {
+        Note note = notes.remove(id);
+        if (note == null) {
+            return false;
+        }
+        bytes -= footprintOf(note.getMessage());
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        notes.clear();
+        bytes = 0;
+    }
+
+    @Override
+    public int[] removeUnpinned() {
+        int[] removed = new int[notes.size()];
+        int count = 0;
+        Iterator<Note> it = notes.values().iterator();
+        while (it.hasNext()) {
+            Note note = it.next();
+            if (!note.isPinned()) {
+                it.remove();
+                bytes -= footprintOf(note.getMessage());
+                removed[count++] = note.getId();
+            }
+        }
+        return Arrays.copyOf(removed, count);
+    }
+
+    @Override
+    public int size() {
+        return notes.size();
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return notes.containsKey(id);
+    }
+
+    @Override
+    public Note get(int id) {
+        return notes.get(id);
+    }
+
+    @Override
+    public String colourOf(int id) {
+        Note note = notes.get(id);
+        return note == null ? null : note.getColour();
+    }
+
+    @Override
+    public int[] ids() {
+        int[] ids = new int[notes.size()];
+        int i = 0;
+        for (int id : notes.keySet()) {
+            ids[i++] = id;
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    @Override
+    public void addPin(int id) {
+        Note note = notes.get(id);
+        if (note != null) {
+            note.addPin();
+        }
+    }
+
+    @Override
+    public int removePin(int id) {
+        Note note = notes.get(id);
+        return note == null ? -1 : note.removePin();
+    }
+
+    @Override
+    public void setExpiresAt(int id, long expiresAt) {
+        Note note = notes.get(id);
+        if (note != null) {
+            note.setExpiresAt(expiresAt);
+        }
+    }
+
+    @Override
+    public void reserveColumns(boolean expiresAt, boolean lastUsed) {
+        // Every Note has room for both.
+    }
+
+    @Override
+    public void setLastUsed(int id, long lastUsed) {
+        Note note = notes.get(id);
+        if (note != null) {
+            note.setLastUsed(lastUsed);
+        }
+    }
+
+    @Override
+    public boolean hasNoteAt(int x, int y) {
+        for (Note note : notes.values()) {
+            if (note.getX() == x && note.getY() == y) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int[] idsContaining(int px, int py) {
+        int[] ids = new int[8];
+        int count = 0;
+        for (Note note : notes.values()) {
+            if (note.contains(px, py, noteWidth, noteHeight)) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = note.getId();
+            }
+        }
+        // Ascending, like the other NoteStore scans, so snapshots list pinned notes in a stable order.
+        ids = Arrays.copyOf(ids, count);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    @Override
+    public List<Note> query(String colour, int containsX, int containsY, String refersTo, ForkJoinPool pool) {
+        if (pool != null) {
+            // HashMap's spliterator splits by table range, and toList merges the parts in encounter order.
+            return pool.submit(() -> notes.values().parallelStream()
+                    .filter(note -> matches(note, colour, containsX, containsY, refersTo))
+                    .collect(Collectors.toList())).join();
+        }
+
+        List<Note> results = new ArrayList<>();
+        for (Note note : notes.values()) {
+            if (matches(note, colour, containsX, containsY, refersTo)) {
+                results.add(note);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<Note> select(int[] ids, String colour, int containsX, int containsY, String refersTo) {
+        List<Note> results = new ArrayList<>();
+        for (int id : ids) {
+            Note note = notes.get(id);
+            if (note != null && matches(note, colour, containsX, containsY, refersTo)) {
+                results.add(note);
+            }
+        }
+        return results;
+    }
+
+    private boolean matches(Note note, String colour, int containsX, int containsY, String refersTo) {
+        // Apply colour filter.
+        if (colour != null && !note.getColour().equals(colour)) {
+            return false;
+        }
+
+        // Apply contains filter.
+        if (containsX != -1 && containsY != -1 && !note.contains(containsX, containsY, noteWidth, noteHeight)) {
+            return false;
+        }
+
+        // Apply refersTo filter.
+        return refersTo == null || note.getMessage().contains(refersTo);
+    }
+
+    @Override
+    public int[] evictionOrder(boolean byLastUsed) {
+        List<Note> candidates = new ArrayList<>();
+        for (Note note : notes.values()) {
+            if (!note.isPinned()) {
+                candidates.add(note);
+            }
+        }
+        candidates.sort(byLastUsed
+                ? Comparator.comparingLong(Note::getLastUsed)
+                : Comparator.comparingInt(Note::getId));
+        int[] ids = new int[candidates.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = candidates.get(i).getId();
+        }
+        return ids;
+    }
+
+    @Override
+    public long footprint() {
+        return bytes;
+    }
+
+    @Override
+    public long unpinnedFootprint() {
+        long unpinned = 0;
+        for (Note note : notes.values()) {
+            if (!note.isPinned()) {
+                unpinned += footprintOf(note.getMessage());
+            }
+        }
+        return unpinned;
+    }
+
+    @Override
+    public void checkMessage(String message) {
+        // Any String fits in a Note.
+    }
+
+    @Override
+    public long footprintOf(String message) {
+        return NOTE_BYTES + MESSAGE_CHAR_BYTES * (message == null ? 0 : message.length());
+    }
+
+    @Override
+    public long footprintOf(int id) {
+        Note note = notes.get(id);
+        return note == null ? 0 : footprintOf(note.getMessage());
+    }
+}
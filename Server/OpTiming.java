@@ -0,0 +1,65 @@
+/**
+ * OpTiming - Board lock timings of the board operations run by the current thread.
+ *
+ * BoardState records every operation here; ClientConnection resets it before a command and reads it
+ * afterwards to split the command's latency into waiting for the board lock, executing under the
+ * lock, and everything else. One instance per thread, so no synchronization is needed.
+ */
+public class OpTiming {
+    private static final ThreadLocal<OpTiming> CURRENT = ThreadLocal.withInitial(OpTiming::new);
+
+    private long lockWaitNanos;
+    private long holdNanos;
+    private int resultSize;
+    private int boardNotes;
+
+    /**
+     * Gets the calling thread's timings.
+     *
+     * @return The thread's OpTiming.
+     */
+    public static OpTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Clears the timings before a new command.
+     */
+    public void reset() {
+        lockWaitNanos = 0;
+        holdNanos = 0;
+        resultSize = 0;
+        boardNotes = 0;
+    }
+
+    /**
+     * Adds one board operation.
+     *
+     * @param lockWaitNanos Time spent waiting to acquire the board lock.
+     * @param holdNanos Time spent executing while holding the lock.
+     * @param resultSize Number of items the operation produced.
+     * @param boardNotes Number of notes on the board when the operation finished.
+     */
+    public void record(long lockWaitNanos, long holdNanos, int resultSize, int boardNotes) {
+        this.lockWaitNanos += lockWaitNanos;
+        this.holdNanos += holdNanos;
+        this.resultSize += resultSize;
+        this.boardNotes = boardNotes;
+    }
+
+    public long getLockWaitNanos() {
+        return lockWaitNanos;
+    }
+
+    public long getHoldNanos() {
+        return holdNanos;
+    }
+
+    public int getResultSize() {
+        return resultSize;
+    }
+
+    public int getBoardNotes() {
+        return boardNotes;
+    }
+}
@@ -0,0 +1,149 @@
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RateLimiter - Per-connection and per-source-address token bucket limits on client commands.
+ *
+ * Every command costs tokens according to how much board work it does:
+ * - DISCONNECT is free.
+ * - POST, PIN, UNPIN, GET PINS and the diagnostic commands cost 1.
+ * - GET costs 1 up front plus 1 per GET_RESULTS_PER_TOKEN notes returned, charged afterwards.
+ * - SHAKE and CLEAR, which scan the whole board under its lock, cost EXPENSIVE_COST.
+ * A command is rejected with ERROR RATE_LIMITED, before it touches the board, if either its
+ * connection's bucket or its source address's bucket cannot cover the up-front cost.
+ *
+ * The address limit stops one host from dodging the connection limit by opening many connections.
+ * Address buckets that have fully refilled are forgotten periodically, so the map only holds
+ * recently active addresses.
+ */
+public class RateLimiter {
+    public static final double EXPENSIVE_COST = 10;
+    public static final int GET_RESULTS_PER_TOKEN = 100;
+    private static final long CLEANUP_INTERVAL_MILLIS = 60_000;
+
+    private final double connectionRate;
+    private final double connectionBurst;
+    private final double addressRate;
+    private final double addressBurst;
+    private final Map<InetAddress, TokenBucket> addresses;
+    private final TimingWheel timer;
+    private final LongAdder rejected;
+
+    /**
+     * Creates a new RateLimiter. A rate of 0 disables that limit.
+     *
+     * @param connectionRate Tokens per second for each connection.
+     * @param connectionBurst Token capacity of each connection.
+     * @param addressRate Tokens per second shared by all connections from one address.
+     * @param addressBurst Token capacity of each address.
+     * @param timer Timer used to forget idle addresses.
+     */
+    public RateLimiter(double connectionRate, double connectionBurst, double addressRate, double addressBurst,
+                       TimingWheel timer) {
+        this.connectionRate = connectionRate;
+        this.connectionBurst = connectionBurst;
+        this.addressRate = addressRate;
+        this.addressBurst = addressBurst;
+        this.addresses = new ConcurrentHashMap<>();
+        this.timer = timer;
+        this.rejected = new LongAdder();
+        if (addressRate > 0) {
+            timer.schedule(this::forgetIdleAddresses, CLEANUP_INTERVAL_MILLIS);
+        }
+    }
+
+    /**
+     * Creates the bucket for a new connection.
+     *
+     * @return The bucket, or null if connections are not limited.
+     */
+    public TokenBucket newConnectionBucket() {
+        return connectionRate > 0 ? new TokenBucket(connectionRate, connectionBurst) : null;
+    }
+
+    /**
+     * Gets the up-front cost of a command.
+     *
+     * @param cmd Upper-case command name.
+     * @return Tokens to take before running the command.
+     */
+    public static double cost(String cmd) {
+        switch (cmd) {
+            case "DISCONNECT":
+                return 0;
+            case "SHAKE":
+            case "CLEAR":
+                return EXPENSIVE_COST;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Takes the up-front cost of a command from the connection's and the address's buckets.
+     *
+     * @param connection The connection's bucket, or null if connections are not limited.
+     * @param address The connection's source address.
+     * @param cost Tokens to take.
+     * @return 0 if the command may run, otherwise the nanoseconds until it could.
+     */
+    public long tryAcquire(TokenBucket connection, InetAddress address, double cost) {
+        if (cost <= 0) {
+            return 0;
+        }
+        if (connection != null && !connection.tryAcquire(cost)) {
+            rejected.increment();
+            return Math.max(1, connection.nanosUntil(cost));
+        }
+        TokenBucket shared = addressBucket(address);
+        if (shared != null && !shared.tryAcquire(cost)) {
+            if (connection != null) {
+                connection.refund(cost);
+            }
+            rejected.increment();
+            return Math.max(1, shared.nanosUntil(cost));
+        }
+        return 0;
+    }
+
+    /**
+     * Charges a cost that is only known after a command has run.
+     *
+     * @param connection The connection's bucket, or null if connections are not limited.
+     * @param address The connection's source address.
+     * @param cost Tokens to take, possibly leaving the buckets in debt.
+     */
+    public void charge(TokenBucket connection, InetAddress address, double cost) {
+        if (cost <= 0) {
+            return;
+        }
+        if (connection != null) {
+            connection.charge(cost);
+        }
+        TokenBucket shared = addressBucket(address);
+        if (shared != null) {
+            shared.charge(cost);
+        }
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private TokenBucket addressBucket(InetAddress address) {
+        if (addressRate <= 0 || address == null) {
+            return null;
+        }
+        return addresses.computeIfAbsent(address, a -> new TokenBucket(addressRate, addressBurst));
+    }
+
+    /**
+     * Drops address buckets that have refilled completely; they would be recreated full anyway.
+     */
+    private void forgetIdleAddresses() {
+        addresses.values().removeIf(TokenBucket::isFull);
+        timer.schedule(this::forgetIdleAddresses, CLEANUP_INTERVAL_MILLIS);
+    }
+}
@@ -0,0 +1,182 @@
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ReplicationFollower - Keeps every hosted board in sync with the same-named board on a leader process.
+ *
+ * Each board is replicated over its own connection (see ReplicationLeader for the wire format).
+ * Followed boards are read-only for clients: they serve GET requests and reject mutations.
+ * Lost connections are retried with a growing delay and resume from a fresh snapshot.
+ */
+public class ReplicationFollower implements ReplicationNode {
+    private static final long MIN_RETRY_MILLIS = 500;
+    private static final long MAX_RETRY_MILLIS = 10_000;
+
+    private final String leaderHost;
+    private final int leaderPort;
+    private final BoardRegistry registry;
+    private final Map<String, BoardLink> links; // board name -> replication link.
+
+    /**
+     * Creates a new ReplicationFollower.
+     *
+     * @param leaderHost Host of the leader's replication port.
+     * @param leaderPort Leader's replication port.
+     * @param registry The boards to keep in sync.
+     */
+    public ReplicationFollower(String leaderHost, int leaderPort, BoardRegistry registry) {
+        this.leaderHost = leaderHost;
+        this.leaderPort = leaderPort;
+        this.registry = registry;
+        this.links = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Marks every board read-only and starts one replication thread per board.
+     */
+    public void start() {
+        for (BoardState board : registry.getBoards()) {
+            board.setReadOnly(true);
+            BoardLink link = new BoardLink(board);
+            links.put(board.getName(), link);
+            Thread thread = new Thread(link, "replication-" + board.getName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+        System.out.println("Replication follower of " + leaderHost + ":" + leaderPort);
+    }
+
+    @Override
+    public Map<String, String> describe(BoardState board) {
+        Map<String, String> status = new LinkedHashMap<>();
+        BoardLink link = links.get(board.getName());
+        long applied = board.getVersion();
+        status.put("role", "follower");
+        status.put("version", String.valueOf(applied));
+        status.put("leader", leaderHost + ":" + leaderPort);
+        if (link != null) {
+            long leaderVersion = Math.max(link.leaderVersion, applied);
+            status.put("connected", String.valueOf(link.connected));
+            status.put("leader_version", String.valueOf(leaderVersion));
+            status.put("lag_versions", String.valueOf(leaderVersion - applied));
+            status.put("lag_ms", String.valueOf(link.lagMillis));
+            status.put("last_contact_ms_ago", link.lastContactMillis == 0 ? "-"
+                    : String.valueOf(System.currentTimeMillis() - link.lastContactMillis));
+            status.put("snapshots_loaded", String.valueOf(link.snapshotsLoaded));
+        }
+        return status;
+    }
+
+    /**
+     * Replication of a single board.
+     */
+    private class BoardLink implements Runnable {
+        private final BoardState board;
+        private volatile boolean connected;
+        private volatile long leaderVersion;
+        private volatile long lagMillis; // Delay between the leader applying a mutation and this follower applying it.
+        private volatile long lastContactMillis;
+        private volatile int snapshotsLoaded;
+
+        BoardLink(BoardState board) {
+            this.board = board;
+        }
+
+        @Override
+        public void run() {
+            long retryMillis = MIN_RETRY_MILLIS;
+            while (true) {
+                try {
+                    replicate();
+                    retryMillis = MIN_RETRY_MILLIS;
+                } catch (IOException | IllegalArgumentException e) {
+                    System.err.println("[Replication] Board '" + board.getName() + "': " + e.getMessage());
+                } finally {
+                    connected = false;
+                }
+
+                try {
+                    Thread.sleep(retryMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                retryMillis = Math.min(retryMillis * 2, MAX_RETRY_MILLIS);
+            }
+        }
+
+        /**
+         * Connects to the leader, loads a snapshot and applies mutations until the connection ends.
+         */
+        private void replicate() throws IOException {
+            try (Socket socket = new Socket(leaderHost, leaderPort);
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+
+                out.println("FOLLOW " + board.getName());
+
+                // SNAPSHOT <version> <board_w> <board_h> <note_w> <note_h> <count>
+                String header = readLine(in);
+                String[] parts = header.split("\\s+");
+                if (!parts[0].equals("SNAPSHOT") || parts.length != 7) {
+                    throw new IOException("Leader refused replication: " + header);
+                }
+                if (Integer.parseInt(parts[2]) != board.getWidth() || Integer.parseInt(parts[3]) != board.getHeight()
+                        || Integer.parseInt(parts[4]) != board.getNoteWidth() || Integer.parseInt(parts[5]) != board.getNoteHeight()) {
+                    throw new IOException("Leader board dimensions differ from local board: " + header);
+                }
+
+                long snapshotVersion = Long.parseLong(parts[1]);
+                int count = Integer.parseInt(parts[6]);
+                List<String> mutations = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    mutations.add(readLine(in));
+                }
+                if (!readLine(in).equals("END")) {
+                    throw new IOException("Snapshot not terminated by END.");
+                }
+
+                board.loadSnapshot(new BoardSnapshot(snapshotVersion, mutations));
+                connected = true;
+                snapshotsLoaded++;
+                leaderVersion = snapshotVersion;
+                lastContactMillis = System.currentTimeMillis();
+                System.out.println("[Replication] Board '" + board.getName() + "' synchronised at version " + snapshotVersion);
+
+                // Apply the mutation stream.
+                String line;
+                while ((line = in.readLine()) != null) {
+                    long now = System.currentTimeMillis();
+                    lastContactMillis = now;
+                    if (line.startsWith("MUT ")) {
+                        // MUT <version> <leader_millis> <mutation>
+                        String[] mut = line.split(" ", 4);
+                        long version = Long.parseLong(mut[1]);
+                        board.applyMutation(version, mut[3]);
+                        leaderVersion = Math.max(leaderVersion, version);
+                        lagMillis = Math.max(0, now - Long.parseLong(mut[2]));
+                    } else if (line.startsWith("HEARTBEAT ")) {
+                        // HEARTBEAT <version> <leader_millis>
+                        String[] beat = line.split(" ");
+                        leaderVersion = Long.parseLong(beat[1]);
+                        if (board.getVersion() >= leaderVersion) {
+                            lagMillis = 0;
+                        }
+                    } else {
+                        throw new IOException("Unexpected replication message: " + line);
+                    }
+                }
+                throw new IOException("Leader closed the replication connection.");
+            }
+        }
+
+        private String readLine(BufferedReader in) throws IOException {
+            String line = in.readLine();
+            if (line == null) {
+                throw new IOException("Leader closed the replication connection.");
+            }
+            return line;
+        }
+    }
+}
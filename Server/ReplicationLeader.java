@@ -0,0 +1,177 @@
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * ReplicationLeader - Streams the ordered mutation sequence of every hosted board to follower processes.
+ *
+ * Replication protocol (one TCP connection per follower and board):
+ *   Follower: FOLLOW <board>
+ *   Leader:   SNAPSHOT <version> <board_w> <board_h> <note_w> <note_h> <count>, then <count> mutation lines, then END
+ *   Leader:   MUT <version> <leader_millis> <mutation>        (one per board mutation, in version order)
+ *   Leader:   HEARTBEAT <version> <leader_millis>              (when no mutation was sent for a second)
+ *
+ * Mutations are queued by a MutationListener while the board lock is held and written by the follower's
+ * own thread, so a slow follower never blocks clients. A follower that falls too far behind is
+ * disconnected and resynchronises from a fresh snapshot when it reconnects.
+ */
+public class ReplicationLeader implements ReplicationNode {
+    private static final int MAX_BACKLOG = 100_000; // Queued mutations per follower before it is dropped.
+    private static final long HEARTBEAT_MILLIS = 1000;
+
+    private final int port;
+    private final BoardRegistry registry;
+    private final Map<String, Set<FollowerLink>> followers; // board name -> connected followers.
+
+    /**
+     * Creates a new ReplicationLeader.
+     *
+     * @param port Port followers connect to.
+     * @param registry The boards to replicate.
+     */
+    public ReplicationLeader(int port, BoardRegistry registry) {
+        this.port = port;
+        this.registry = registry;
+        this.followers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Starts accepting follower connections on a background thread.
+     *
+     * @throws IOException if the replication port cannot be opened.
+     */
+    public void start() throws IOException {
+        ServerSocket serverSocket = new ServerSocket(port);
+        Thread acceptor = new Thread(() -> {
+            while (true) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    Thread thread = new Thread(new FollowerLink(socket), "replication-follower");
+                    thread.setDaemon(true);
+                    thread.start();
+                } catch (IOException e) {
+                    System.err.println("[Replication] Error accepting follower: " + e.getMessage());
+                }
+            }
+        }, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        System.out.println("Replication leader listening on port " + port);
+    }
+
+    @Override
+    public Map<String, String> describe(BoardState board) {
+        Map<String, String> status = new LinkedHashMap<>();
+        status.put("role", "leader");
+        status.put("version", String.valueOf(board.getVersion()));
+        status.put("replication_port", String.valueOf(port));
+        status.put("followers", String.valueOf(followers.getOrDefault(board.getName(), Collections.emptySet()).size()));
+        return status;
+    }
+
+    /**
+     * One follower connection replicating one board.
+     */
+    private class FollowerLink implements Runnable, MutationListener {
+        private final Socket socket;
+        private final BlockingQueue<String> queue;
+        private volatile boolean overflowed;
+
+        FollowerLink(Socket socket) {
+            this.socket = socket;
+            this.queue = new LinkedBlockingQueue<>(MAX_BACKLOG);
+        }
+
+        @Override
+        public void onMutation(BoardState board, long version, String mutation) {
+            // Called under the board lock: never block here.
+            if (!queue.offer("MUT " + version + " " + System.currentTimeMillis() + " " + mutation)) {
+                overflowed = true;
+            }
+        }
+
+        @Override
+        public void run() {
+            BoardState board = null;
+            String peer = socket.getRemoteSocketAddress().toString();
+
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                 PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(socket.getOutputStream())))) {
+
+                String request = in.readLine();
+                String[] parts = request == null ? new String[0] : request.trim().split("\\s+");
+                if (parts.length != 2 || !parts[0].equals("FOLLOW")) {
+                    out.println("ERROR INVALID_FORMAT Expected FOLLOW <board>.");
+                    out.flush();
+                    return;
+                }
+
+                board = registry.getBoard(parts[1]);
+                if (board == null) {
+                    out.println("ERROR BOARD_NOT_FOUND No board named '" + parts[1] + "'.");
+                    out.flush();
+                    return;
+                }
+
+                // Subscribe and snapshot atomically so no mutation is missed or duplicated.
+                BoardSnapshot snapshot = board.subscribe(this);
+                followers.computeIfAbsent(board.getName(), k -> ConcurrentHashMap.newKeySet()).add(this);
+                System.out.println("[Replication] Follower " + peer + " replicating board '" + board.getName()
+                        + "' from version " + snapshot.getVersion());
+
+                out.println("SNAPSHOT " + snapshot.getVersion() + " " + board.getWidth() + " " + board.getHeight() + " "
+                        + board.getNoteWidth() + " " + board.getNoteHeight() + " " + snapshot.getMutations().size());
+                for (String mutation : snapshot.getMutations()) {
+                    out.println(mutation);
+                }
+                out.println("END");
+                out.flush();
+
+                // Stream mutations, with heartbeats while idle. Heartbeats carry the version of the last
+                // mutation written, not the board's, which may be ahead of what is still queued.
+                long written = snapshot.getVersion();
+                while (!out.checkError()) {
+                    if (overflowed) {
+                        System.err.println("[Replication] Follower " + peer + " fell too far behind; disconnecting.");
+                        break;
+                    }
+                    String line = queue.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (line == null) {
+                        out.println("HEARTBEAT " + written + " " + System.currentTimeMillis());
+                    } else {
+                        // Batch whatever else is already queued into the same flush.
+                        do {
+                            out.println(line);
+                            written = versionOf(line);
+                        } while ((line = queue.poll()) != null);
+                    }
+                    out.flush();
+                }
+
+            } catch (IOException e) {
+                System.err.println("[Replication] Follower " + peer + " error: " + e.getMessage() + ".");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (board != null) {
+                    board.unsubscribe(this);
+                    followers.getOrDefault(board.getName(), Collections.emptySet()).remove(this);
+                }
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // Ignore.
+                }
+                System.out.println("[Replication] Follower " + peer + " disconnected.");
+            }
+        }
+    }
+
+    /**
+     * Gets the version of a queued "MUT <version> ..." line.
+     */
+    private static long versionOf(String line) {
+        return Long.parseLong(line.substring(4, line.indexOf(' ', 4)));
+    }
+}
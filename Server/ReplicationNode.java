@@ -0,0 +1,15 @@
+import java.util.Map;
+
+/**
+ * ReplicationNode - The replication role of this server process (leader or follower).
+ */
+public interface ReplicationNode {
+
+    /**
+     * Describes the replication state of a board for the REPLICATION command.
+     *
+     * @param board The board to describe.
+     * @return Ordered map of status keys to values.
+     */
+    Map<String, String> describe(BoardState board);
+}
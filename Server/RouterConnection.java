@@ -0,0 +1,331 @@
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+/**
+ * RouterConnection - Handles one client of the ShardRouter.
+ *
+ * Each client gets its own connection to every shard, so commands from one client reach the shards
+ * in the order they were sent. Scatter-gather commands are written to all target shards before any
+ * reply is read, so the shards work on them in parallel.
+ */
+public class RouterConnection implements Runnable {
+    private final Socket clientSocket;
+    private final ShardRouter router;
+    private final int clientId;
+    private final List<ShardLink> links;
+
+    /**
+     * Creates a new RouterConnection.
+     *
+     * @param clientSocket The socket connected to the client.
+     * @param router The router configuration.
+     * @param clientId Unique identifier for this client (for logging).
+     */
+    public RouterConnection(Socket clientSocket, ShardRouter router, int clientId) {
+        this.clientSocket = clientSocket;
+        this.router = router;
+        this.clientId = clientId;
+        this.links = new ArrayList<>();
+    }
+
+    @Override
+    public void run() {
+        try (PrintWriter out = new PrintWriter(clientSocket.getOutputStream(), true);
+             BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()))) {
+
+            System.out.println("[Client " + clientId + "] Connected from: " + clientSocket.getInetAddress());
+
+            // Connect to every shard before greeting the client.
+            for (InetSocketAddress shard : router.getShards()) {
+                links.add(new ShardLink(shard));
+            }
+            out.println(router.getHello());
+
+            String inputLine;
+            while ((inputLine = in.readLine()) != null) {
+                inputLine = inputLine.trim();
+                String response = processCommand(inputLine);
+                out.println(response);
+
+                if (inputLine.toUpperCase().startsWith("DISCONNECT")) {
+                    break;
+                }
+            }
+
+            System.out.println("[Client " + clientId + "] Disconnected.");
+
+        } catch (IOException e) {
+            System.err.println("[Client " + clientId + "] Error: " + e.getMessage() + ".");
+        } finally {
+            for (ShardLink link : links) {
+                link.close();
+            }
+            try {
+                clientSocket.close();
+            } catch (IOException e) {
+                System.err.println("[Client " + clientId + "] Error closing resources: " + e.getMessage() + ".");
+            }
+        }
+    }
+
+    /**
+     * Routes a single client command and returns the merged response.
+     */
+    private String processCommand(String command) throws IOException {
+        String[] tokens = command.split("\\s+");
+        if (tokens.length == 0 || tokens[0].isEmpty()) {
+            return "ERROR INVALID_FORMAT Empty command.";
+        }
+
+        String cmd = tokens[0].toUpperCase();
+        try {
+            switch (cmd) {
+                case "POST":
+                    return handlePost(command, tokens);
+                case "GET":
+                    return handleGet(command, tokens);
+                case "PIN":
+                    return handlePinOrUnpin(command, tokens, "NO_NOTE_AT_COORDINATE");
+                case "UNPIN":
+                    return handlePinOrUnpin(command, tokens, "PIN_NOT_FOUND");
+                case "SHAKE":
+                case "CLEAR":
+                    return handleBroadcast(command);
+                case "DISCONNECT":
+                    return tokens.length == 1 ? "OK" : "ERROR INVALID_FORMAT DISCONNECT takes no arguments.";
+                default:
+                    return "ERROR INVALID_FORMAT Unknown command: " + cmd;
+            }
+        } catch (NumberFormatException e) {
+            return "ERROR INVALID_INT " + e.getMessage() + ".";
+        } catch (IllegalArgumentException e) {
+            return "ERROR " + e.getMessage();
+        }
+    }
+
+    /**
+     * Forwards POST to the shard owning the note's upper-left corner.
+     */
+    private String handlePost(String command, String[] tokens) throws IOException {
+        if (tokens.length < 4) {
+            return "ERROR INVALID_FORMAT POST requires X and Y coordinates, and a colour.";
+        }
+
+        int shard = router.shardFor(Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2]));
+        String response = links.get(shard).request(command).get(0);
+        if (response.startsWith("OK NOTE ")) {
+            int localId = Integer.parseInt(response.substring(8).trim());
+            return "OK NOTE " + router.globalNoteId(shard, localId);
+        }
+        return response;
+    }
+
+    /**
+     * Forwards PIN/UNPIN to every shard that may own a note under the pin.
+     * Succeeds if any shard succeeds; otherwise reports the most specific error.
+     */
+    private String handlePinOrUnpin(String command, String[] tokens, String notFoundCode) throws IOException {
+        if (tokens.length != 3) {
+            return "ERROR INVALID_FORMAT " + tokens[0].toUpperCase() + " requires X and Y coordinates.";
+        }
+
+        List<Integer> shards = router.shardsCovering(Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2]));
+        List<List<String>> responses = scatter(command, shards);
+
+        String notFound = null;
+        String otherError = null;
+        for (List<String> response : responses) {
+            String line = response.get(0);
+            if (line.equals("OK")) {
+                return "OK";
+            } else if (line.startsWith("ERROR " + notFoundCode)) {
+                notFound = line;
+            } else if (otherError == null) {
+                otherError = line;
+            }
+        }
+        return otherError != null ? otherError : notFound;
+    }
+
+    /**
+     * Sends SHAKE or CLEAR to every shard.
+     */
+    private String handleBroadcast(String command) throws IOException {
+        for (List<String> response : scatter(command, allShards())) {
+            if (!response.get(0).equals("OK")) {
+                return response.get(0);
+            }
+        }
+        return "OK";
+    }
+
+    /**
+     * Scatter-gathers GET and GET PINS, merging the shard lists. For GET NEAREST every shard returns
+     * its own nearest notes, and the merged list is cut back to the overall nearest.
+     */
+    private String handleGet(String command, String[] tokens) throws IOException {
+        boolean pinsQuery = tokens.length == 2 && tokens[1].equalsIgnoreCase("PINS");
+        if (tokens.length >= 2 && (tokens[1].equalsIgnoreCase("SINCE") || tokens[1].equalsIgnoreCase("IFCHANGED"))) {
+            // Each shard has its own version sequence, so there is no single version to refresh from.
+            return "ERROR INVALID_FORMAT GET " + tokens[1].toUpperCase() + " is not supported by the shard router; send GET.";
+        }
+
+        // A contains= or region= filter only needs the shards that may own a note covering the point or rectangle.
+        List<Integer> shards = allShards();
+        for (int i = 1; i < tokens.length && !pinsQuery; i++) {
+            if (tokens[i].startsWith("contains=") && i + 1 < tokens.length) {
+                shards = router.shardsCovering(Integer.parseInt(tokens[i].substring(9)), Integer.parseInt(tokens[i + 1]));
+                break;
+            }
+            if (tokens[i].startsWith("region=") && i + 3 < tokens.length) {
+                shards = router.shardsIntersecting(Integer.parseInt(tokens[i].substring(7)), Integer.parseInt(tokens[i + 1]),
+                        Integer.parseInt(tokens[i + 2]), Integer.parseInt(tokens[i + 3]));
+                break;
+            }
+        }
+
+        List<List<String>> responses = scatter(command, shards);
+        List<String> merged = new ArrayList<>();
+        Set<String> seenPins = new HashSet<>();
+        for (int i = 0; i < responses.size(); i++) {
+            List<String> response = responses.get(i);
+            if (!response.get(0).startsWith("OK")) {
+                return response.get(0);
+            }
+
+            int shard = shards.get(i);
+            for (String line : response.subList(1, response.size() - 1)) {
+                if (pinsQuery) {
+                    // A pin covering notes on several shards is stored on each of them.
+                    if (seenPins.add(line)) {
+                        merged.add(line);
+                    }
+                } else {
+                    // NOTE <id> <rest...>
+                    String[] parts = line.split(" ", 3);
+                    int globalId = router.globalNoteId(shard, Integer.parseInt(parts[1]));
+                    merged.add(parts[0] + " " + globalId + (parts.length > 2 ? " " + parts[2] : ""));
+                }
+            }
+        }
+
+        if (tokens.length >= 5 && tokens[1].equalsIgnoreCase("NEAREST")) {
+            int px = Integer.parseInt(tokens[2]);
+            int py = Integer.parseInt(tokens[3]);
+            int k = Integer.parseInt(tokens[4]);
+            merged.sort(Comparator.<String>comparingLong(line -> squaredDistance(px, py, line))
+                    .thenComparingInt(line -> Integer.parseInt(line.split(" ", 3)[1])));
+            merged = new ArrayList<>(merged.subList(0, Math.min(k, merged.size())));
+        } else if (!pinsQuery) {
+            merged.sort(Comparator.comparingInt(line -> Integer.parseInt(line.split(" ", 3)[1])));
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("OK ").append(merged.size()).append("\n");
+        for (String line : merged) {
+            sb.append(line).append("\n");
+        }
+        sb.append("END");
+        return sb.toString();
+    }
+
+    /**
+     * Gets the squared distance from a point to the nearest part of the note on a NOTE line,
+     * as the shards measure it for GET NEAREST.
+     */
+    private long squaredDistance(int px, int py, String line) {
+        // NOTE <id> <x> <y> <rest...>
+        String[] parts = line.split(" ", 5);
+        int x = Integer.parseInt(parts[2]);
+        int y = Integer.parseInt(parts[3]);
+        long dx = px < x ? x - px : Math.max(0, px - (x + router.getNoteWidth() - 1));
+        long dy = py < y ? y - py : Math.max(0, py - (y + router.getNoteHeight() - 1));
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Sends a command to several shards, then collects their responses in the same order.
+     */
+    private List<List<String>> scatter(String command, List<Integer> shards) throws IOException {
+        for (int shard : shards) {
+            links.get(shard).send(command);
+        }
+        List<List<String>> responses = new ArrayList<>();
+        for (int shard : shards) {
+            responses.add(links.get(shard).read());
+        }
+        return responses;
+    }
+
+    private List<Integer> allShards() {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < links.size(); i++) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    /**
+     * A protocol connection to one shard.
+     */
+    private static class ShardLink {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        ShardLink(InetSocketAddress shard) throws IOException {
+            socket = new Socket(shard.getHostString(), shard.getPort());
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            out = new PrintWriter(socket.getOutputStream(), true);
+            if (in.readLine() == null) {
+                throw new IOException("Shard " + shard + " closed the connection before HELLO.");
+            }
+        }
+
+        void send(String command) {
+            out.println(command);
+        }
+
+        /**
+         * Reads one response: a single line, or OK <count> followed by the list and END.
+         */
+        List<String> read() throws IOException {
+            List<String> lines = new ArrayList<>();
+            String first = readLine();
+            lines.add(first);
+
+            String[] tokens = first.split("\\s+");
+            if (tokens.length >= 2 && tokens[0].equals("OK") && tokens[1].matches("\\d+")) {
+                String line;
+                do {
+                    line = readLine();
+                    lines.add(line);
+                } while (!line.equals("END"));
+            }
+            return lines;
+        }
+
+        List<String> request(String command) throws IOException {
+            send(command);
+            return read();
+        }
+
+        private String readLine() throws IOException {
+            String line = in.readLine();
+            if (line == null) {
+                throw new IOException("Shard " + socket.getRemoteSocketAddress() + " closed the connection.");
+            }
+            return line;
+        }
+
+        void close() {
+            out.println("DISCONNECT");
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Ignore.
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * ScalarScanKernel - Plain loop implementation of ScanKernel, used when the Vector API is unavailable.
+ *
+ * The containment test is branch-free apart from the match itself, so the JIT can still unroll it.
+ */
+public class ScalarScanKernel implements ScanKernel {
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public int selectContaining(int[] xs, int[] ys, int from, int to, int px, int py, int width, int height, int[] out) {
+        int count = 0;
+        for (int slot = from; slot < to; slot++) {
+            int dx = px - xs[slot];
+            int dy = py - ys[slot];
+            if ((dx >= 0) & (dx < width) & (dy >= 0) & (dy < height)) {
+                out[count++] = slot;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int selectColour(short[] colours, int from, int to, short colour, int[] out) {
+        int count = 0;
+        for (int slot = from; slot < to; slot++) {
+            if (colours[slot] == colour) {
+                out[count++] = slot;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * ScanKernel - The inner loops of ColumnarNoteStore's position and colour scans.
+ *
+ * Each method looks at a block of slots and writes the indices of the matching ones to `out`,
+ * in ascending order. Dead slots are not excluded (their columns keep their last values), so
+ * callers still check liveness for each selected slot, which is cheap because selective scans
+ * return few slots.
+ *
+ * ScalarScanKernel is always available. VectorScanKernel (in the vector directory) evaluates the
+ * same predicates over whole SIMD registers with the incubating Vector API; it is compiled
+ * separately and loaded by name, so the server still builds and runs on JDKs without the module.
+ */
+public interface ScanKernel {
+
+    /**
+     * Gets a short description of the kernel for the startup log.
+     */
+    String getName();
+
+    /**
+     * Selects the slots whose note contains a point: x <= px < x + width and y <= py < y + height.
+     *
+     * @param xs X column.
+     * @param ys Y column.
+     * @param from First slot to scan.
+     * @param to Slot after the last one to scan.
+     * @param px Point X-coordinate.
+     * @param py Point Y-coordinate.
+     * @param width Width of all notes.
+     * @param height Height of all notes.
+     * @param out Receives the matching slots; must hold at least to - from entries.
+     * @return Number of slots written to out.
+     */
+    int selectContaining(int[] xs, int[] ys, int from, int to, int px, int py, int width, int height, int[] out);
+
+    /**
+     * Selects the slots with a colour ordinal.
+     *
+     * @param colours Colour ordinal column.
+     * @param from First slot to scan.
+     * @param to Slot after the last one to scan.
+     * @param colour Colour ordinal to look for.
+     * @param out Receives the matching slots; must hold at least to - from entries.
+     * @return Number of slots written to out.
+     */
+    int selectColour(short[] colours, int from, int to, short colour, int[] out);
+
+    /**
+     * Loads a kernel by name.
+     *
+     * @param name "scalar", "vector", or "auto" for the vector kernel when it can be loaded.
+     * @return The kernel.
+     * @throws IllegalArgumentException if the name is unknown, or "vector" cannot be loaded.
+     */
+    static ScanKernel load(String name) throws IllegalArgumentException {
+        if (name.equals("scalar")) {
+            return new ScalarScanKernel();
+        }
+        if (!name.equals("vector") && !name.equals("auto")) {
+            throw new IllegalArgumentException("Unknown scan kernel '" + name + "'.");
+        }
+        try {
+            return (ScanKernel) Class.forName("VectorScanKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not compiled, or the JVM was started without --add-modules jdk.incubator.vector.
+            if (name.equals("vector")) {
+                throw new IllegalArgumentException("The vector scan kernel is not available (" + e + ").");
+            }
+            return new ScalarScanKernel();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * ServerContext - The shared server-wide services handed to every client connection.
+ */
+public class ServerContext {
+    private final BoardRegistry registry;
+    private final ServerMetrics metrics;
+    private final SlowRequestLog slowLog;
+    private final boolean traceEnabled;
+    private final TimingWheel timer;
+    private final long idleTimeoutMillis;
+    private final long readTimeoutMillis;
+    private final RateLimiter rateLimiter;
+    private final int compressThreshold;
+
+    /**
+     * Creates a new ServerContext.
+     *
+     * @param registry The boards hosted by this server.
+     * @param metrics Server-wide counters.
+     * @param slowLog Log of requests over the latency threshold.
+     * @param traceEnabled true to print every command and response to stdout.
+     * @param timer Timing wheel shared by all connection timeouts.
+     * @param idleTimeoutMillis Time a connection may wait between requests before it is closed (0 = never).
+     * @param readTimeoutMillis Time a started request may take to arrive in full before the connection is closed (0 = never).
+     * @param rateLimiter Per-connection and per-address command rate limits.
+     * @param compressThreshold Smallest response, in bytes, compressed for clients that sent COMPRESS DEFLATE (0 = COMPRESS refused).
+     */
+    public ServerContext(BoardRegistry registry, ServerMetrics metrics, SlowRequestLog slowLog, boolean traceEnabled,
+                         TimingWheel timer, long idleTimeoutMillis, long readTimeoutMillis, RateLimiter rateLimiter,
+                         int compressThreshold) {
+        this.registry = registry;
+        this.metrics = metrics;
+        this.slowLog = slowLog;
+        this.traceEnabled = traceEnabled;
+        this.timer = timer;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.rateLimiter = rateLimiter;
+        this.compressThreshold = compressThreshold;
+    }
+
+    public BoardRegistry getRegistry() {
+        return registry;
+    }
+
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public SlowRequestLog getSlowLog() {
+        return slowLog;
+    }
+
+    public boolean isTraceEnabled() {
+        return traceEnabled;
+    }
+
+    public TimingWheel getTimer() {
+        return timer;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public long getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public int getCompressThreshold() {
+        return compressThreshold;
+    }
+}
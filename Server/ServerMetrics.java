@@ -0,0 +1,215 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ServerMetrics - Live counters for the whole server process.
+ *
+ * Tracks connections, bytes in and out, and per-command request counts, error counts and latency
+ * histograms. Counters are striped LongAdders and histograms are lock-free, so recording on the
+ * request path never contends on a shared lock.
+ */
+public class ServerMetrics {
+    /** Commands tracked individually; anything else is counted as OTHER. */
+    public static final List<String> COMMANDS = Collections.unmodifiableList(Arrays.asList(
+            "POST", "GET", "PIN", "UNPIN", "SHAKE", "CLEAR", "USE", "REPLICATION", "STATS", "SLOWLOG", "LOCKS", "COMPRESS", "DISCONNECT", "OTHER"));
+    private static final Map<String, Integer> INDEXES = new HashMap<>(); // command -> slot in the arrays below.
+
+    static {
+        for (int i = 0; i < COMMANDS.size(); i++) {
+            INDEXES.put(COMMANDS.get(i), i);
+        }
+    }
+
+    private final LongAdder activeConnections;
+    private final LongAdder totalConnections;
+    private final LongAdder bytesIn;
+    private final LongAdder bytesOut;
+    private final LongAdder reapedIdle;
+    private final LongAdder reapedRead;
+    private final LongAdder notModified;
+    private final LongAdder compressedResponses;
+    private final LongAdder compressedRawBytes;
+    private final LongAdder compressedWireBytes;
+    private final LongAdder[] requests;
+    private final LongAdder[] errors;
+    private final LatencyHistogram[] latencies;
+
+    public ServerMetrics() {
+        this.activeConnections = new LongAdder();
+        this.totalConnections = new LongAdder();
+        this.bytesIn = new LongAdder();
+        this.bytesOut = new LongAdder();
+        this.reapedIdle = new LongAdder();
+        this.reapedRead = new LongAdder();
+        this.notModified = new LongAdder();
+        this.compressedResponses = new LongAdder();
+        this.compressedRawBytes = new LongAdder();
+        this.compressedWireBytes = new LongAdder();
+        this.requests = new LongAdder[COMMANDS.size()];
+        this.errors = new LongAdder[COMMANDS.size()];
+        this.latencies = new LatencyHistogram[COMMANDS.size()];
+        for (int i = 0; i < COMMANDS.size(); i++) {
+            requests[i] = new LongAdder();
+            errors[i] = new LongAdder();
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    public void connectionOpened() {
+        activeConnections.increment();
+        totalConnections.increment();
+    }
+
+    public void connectionClosed() {
+        activeConnections.decrement();
+    }
+
+    /**
+     * Records a connection closed by the server because it timed out.
+     *
+     * @param idle true for an idle timeout, false for a read timeout.
+     */
+    public void connectionReaped(boolean idle) {
+        if (idle) {
+            reapedIdle.increment();
+        } else {
+            reapedRead.increment();
+        }
+    }
+
+    /**
+     * Records a GET IFCHANGED answered with NOT_MODIFIED.
+     */
+    public void notModified() {
+        notModified.increment();
+    }
+
+    /**
+     * Records a response sent compressed.
+     *
+     * @param rawBytes Size of the response before compression.
+     * @param wireBytes Size of the DEFLATE line that replaced it.
+     */
+    public void compressed(int rawBytes, int wireBytes) {
+        compressedResponses.increment();
+        compressedRawBytes.add(rawBytes);
+        compressedWireBytes.add(wireBytes);
+    }
+
+    /**
+     * Records one processed command.
+     *
+     * @param command Upper-case command name.
+     * @param error true if the response was an ERROR.
+     * @param micros Time from receiving the command to writing the response.
+     */
+    public void recordCommand(String command, boolean error, long micros) {
+        int index = indexOf(command);
+        requests[index].increment();
+        if (error) {
+            errors[index].increment();
+        }
+        latencies[index].record(micros);
+    }
+
+    public long getActiveConnections() {
+        return activeConnections.sum();
+    }
+
+    public long getTotalConnections() {
+        return totalConnections.sum();
+    }
+
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    public long getReapedIdle() {
+        return reapedIdle.sum();
+    }
+
+    public long getReapedRead() {
+        return reapedRead.sum();
+    }
+
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    public long getCompressedResponses() {
+        return compressedResponses.sum();
+    }
+
+    public long getCompressedRawBytes() {
+        return compressedRawBytes.sum();
+    }
+
+    public long getCompressedWireBytes() {
+        return compressedWireBytes.sum();
+    }
+
+    public long getRequests(String command) {
+        return requests[indexOf(command)].sum();
+    }
+
+    public long getErrors(String command) {
+        return errors[indexOf(command)].sum();
+    }
+
+    public LatencyHistogram getLatency(String command) {
+        return latencies[indexOf(command)];
+    }
+
+    /**
+     * Wraps a socket input stream so every byte read is counted.
+     */
+    public InputStream countIn(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytesIn.increment();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    bytesIn.add(n);
+                }
+                return n;
+            }
+        };
+    }
+
+    /**
+     * Wraps a socket output stream so every byte written is counted.
+     */
+    public OutputStream countOut(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                bytesOut.increment();
+            }
+
+            @Override
+            public void write(byte[] buffer, int offset, int length) throws IOException {
+                out.write(buffer, offset, length);
+                bytesOut.add(length);
+            }
+        };
+    }
+
+    private static int indexOf(String command) {
+        return INDEXES.getOrDefault(command, COMMANDS.size() - 1);
+    }
+}
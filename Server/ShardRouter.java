@@ -0,0 +1,257 @@
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+/**
+ * Shard Router
+ *
+ * A front end that speaks the Bulletin Board Protocol to clients while the board itself is split into
+ * a grid of rectangular regions, each owned by a separate BulletinBoardServer process (a shard).
+ *
+ * Usage:
+ *   java ShardRouter <port> <columns> <rows> <shard1_host:port> ... <shardN_host:port>
+ *
+ * Example (a 2x2 grid of shards, listed row by row):
+ *   java ShardRouter 4321 2 2 127.0.0.1:5001 127.0.0.1:5002 127.0.0.1:5003 127.0.0.1:5004
+ *
+ * Every shard must be started with the same board configuration; each one only ever stores the notes
+ * whose upper-left corner lies in its region, so shards should only be reached through the router.
+ *
+ * The router:
+ * - Forwards POST to the shard owning the note's upper-left corner.
+ * - Forwards PIN/UNPIN to every shard that may own a note covering the pin (notes can straddle regions).
+ * - Scatter-gathers GET, GET PINS, SHAKE and CLEAR across the relevant shards.
+ * - Maps shard-local note IDs to global IDs (local_id * shard_count + shard_index).
+ */
+public class ShardRouter {
+    private final List<InetSocketAddress> shards;
+    private final int columns;
+    private final int rows;
+    private final String hello;
+    private final int boardWidth;
+    private final int boardHeight;
+    private final int noteWidth;
+    private final int noteHeight;
+
+    /**
+     * Creates a new ShardRouter, reading the board configuration from the shards.
+     *
+     * @param shards Shard addresses in row-major region order.
+     * @param columns Number of region columns.
+     * @param rows Number of region rows.
+     * @throws IOException if a shard cannot be reached or shards disagree on the board configuration.
+     */
+    public ShardRouter(List<InetSocketAddress> shards, int columns, int rows) throws IOException {
+        this.shards = shards;
+        this.columns = columns;
+        this.rows = rows;
+
+        // All shards must host the same board.
+        String firstHello = null;
+        for (InetSocketAddress shard : shards) {
+            try (Socket socket = new Socket(shard.getHostString(), shard.getPort());
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
+                String line = in.readLine();
+                if (line == null || !line.startsWith("HELLO ")) {
+                    throw new IOException("Shard " + shard + " did not send HELLO.");
+                }
+                if (firstHello == null) {
+                    firstHello = line;
+                } else if (!firstHello.equals(line)) {
+                    throw new IOException("Shard " + shard + " has a different board configuration: " + line);
+                }
+            }
+        }
+
+        this.hello = firstHello;
+        String[] tokens = hello.split("\\s+");
+        this.boardWidth = Integer.parseInt(tokens[1]);
+        this.boardHeight = Integer.parseInt(tokens[2]);
+        this.noteWidth = Integer.parseInt(tokens[3]);
+        this.noteHeight = Integer.parseInt(tokens[4]);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            printUsageAndExit();
+        }
+
+        try {
+            int port = Integer.parseInt(args[0]);
+            if (port < 1 || port > 65535) {
+                System.err.println("Error: Port must be between 1 and 65535.");
+                System.exit(1);
+            }
+
+            int columns = Integer.parseInt(args[1]);
+            int rows = Integer.parseInt(args[2]);
+            if (columns < 1 || rows < 1) {
+                System.err.println("Error: Columns and rows must be at least 1.");
+                System.exit(1);
+            }
+
+            if (args.length - 3 != columns * rows) {
+                System.err.println("Error: Expected " + (columns * rows) + " shard addresses for a " + columns + "x" + rows + " grid.");
+                System.exit(1);
+            }
+
+            List<InetSocketAddress> shards = new ArrayList<>();
+            for (int i = 3; i < args.length; i++) {
+                int separator = args[i].lastIndexOf(':');
+                if (separator < 1) {
+                    System.err.println("Error: Shard address must be <host>:<port>, got '" + args[i] + "'.");
+                    System.exit(1);
+                }
+                shards.add(InetSocketAddress.createUnresolved(args[i].substring(0, separator),
+                        Integer.parseInt(args[i].substring(separator + 1))));
+            }
+
+            ShardRouter router = new ShardRouter(shards, columns, rows);
+            System.out.println("Router starting on port " + port);
+            System.out.println("Board: " + router.boardWidth + "x" + router.boardHeight + " split into "
+                    + columns + "x" + rows + " regions across " + shards.size() + " shards");
+            router.start(port);
+
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("Router error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Accepts client connections, one thread per client.
+     */
+    private void start(int port) throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(port)) {
+            System.out.println("\nRouter started successfully.");
+            System.out.println("Listening on port " + port);
+            int clientCounter = 0;
+            while (true) {
+                try {
+                    Socket clientSocket = serverSocket.accept();
+                    clientCounter++;
+                    Thread thread = new Thread(new RouterConnection(clientSocket, this, clientCounter));
+                    thread.start();
+                } catch (IOException e) {
+                    System.err.println("Error accepting client connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public List<InetSocketAddress> getShards() {
+        return shards;
+    }
+
+    public String getHello() {
+        return hello;
+    }
+
+    public int getNoteWidth() {
+        return noteWidth;
+    }
+
+    public int getNoteHeight() {
+        return noteHeight;
+    }
+
+    /**
+     * Finds the shard owning a coordinate. Coordinates outside the board go to shard 0, which rejects them.
+     *
+     * @param x X-coordinate.
+     * @param y Y-coordinate.
+     * @return Shard index.
+     */
+    public int shardFor(int x, int y) {
+        if (x < 0 || y < 0 || x >= boardWidth || y >= boardHeight) {
+            return 0;
+        }
+        return regionRow(y) * columns + regionColumn(x);
+    }
+
+    /**
+     * Finds every shard owning part of a rectangle of coordinates (inclusive, clipped to the board).
+     *
+     * @return Shard indexes in ascending order; shard 0 alone if the rectangle misses the board.
+     */
+    public List<Integer> shardsFor(int x1, int y1, int x2, int y2) {
+        x1 = Math.max(x1, 0);
+        y1 = Math.max(y1, 0);
+        x2 = Math.min(x2, boardWidth - 1);
+        y2 = Math.min(y2, boardHeight - 1);
+
+        List<Integer> result = new ArrayList<>();
+        if (x1 > x2 || y1 > y2) {
+            result.add(0);
+            return result;
+        }
+        for (int row = regionRow(y1); row <= regionRow(y2); row++) {
+            for (int column = regionColumn(x1); column <= regionColumn(x2); column++) {
+                result.add(row * columns + column);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds every shard that may own a note covering a coordinate.
+     * A note covers (x, y) when its upper-left corner lies within one note size up and to the left.
+     */
+    public List<Integer> shardsCovering(int x, int y) {
+        if (x < 0 || y < 0 || x >= boardWidth || y >= boardHeight) {
+            return Collections.singletonList(0);
+        }
+        return shardsFor(x - noteWidth + 1, y - noteHeight + 1, x, y);
+    }
+
+    /**
+     * Finds every shard that may own a note intersecting a rectangle (inclusive).
+     */
+    public List<Integer> shardsIntersecting(int x1, int y1, int x2, int y2) {
+        return shardsFor(x1 - noteWidth + 1, y1 - noteHeight + 1, x2, y2);
+    }
+
+    /**
+     * Converts a shard-local note ID to the ID clients see.
+     *
+     * @throws IllegalArgumentException if the ID does not fit in an int, which happens once a shard's
+     *         local IDs pass Integer.MAX_VALUE / shard count.
+     */
+    public int globalNoteId(int shard, int localId) throws IllegalArgumentException {
+        long globalId = (long) localId * shards.size() + shard;
+        if (globalId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("ID_OVERFLOW Note " + localId + " on shard " + shard
+                    + " is past the router's limit of " + Integer.MAX_VALUE / shards.size() + " notes per shard.");
+        }
+        return (int) globalId;
+    }
+
+    private int regionColumn(int x) {
+        int regionWidth = (boardWidth + columns - 1) / columns;
+        return Math.min(x / regionWidth, columns - 1);
+    }
+
+    private int regionRow(int y) {
+        int regionHeight = (boardHeight + rows - 1) / rows;
+        return Math.min(y / regionHeight, rows - 1);
+    }
+
+    /**
+     * Prints usage information and exits.
+     */
+    private static void printUsageAndExit() {
+        System.err.println("\nUsage: java ShardRouter <port> <columns> <rows> <shard1_host:port> ... <shardN_host:port>");
+        System.err.println("\nParameters:");
+        System.err.println("  port          - Port number clients connect to (1-65535)");
+        System.err.println("  columns       - Number of region columns the board is split into");
+        System.err.println("  rows          - Number of region rows the board is split into");
+        System.err.println("  shard1...N    - columns x rows shard servers, listed row by row from the top-left region");
+        System.err.println("\nExample:");
+        System.err.println("  java ShardRouter 4321 2 2 127.0.0.1:5001 127.0.0.1:5002 127.0.0.1:5003 127.0.0.1:5004");
+        System.err.println();
+        System.exit(1);
+    }
+}
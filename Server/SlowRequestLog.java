@@ -0,0 +1,136 @@
+import java.io.*;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * SlowRequestLog - Keeps only the requests whose latency exceeds a threshold.
+ *
+ * Each slow request is kept as one line in a bounded in-memory ring (queried with SLOWLOG) and,
+ * optionally, appended to a log file that is rolled over when it reaches a size limit.
+ * File writes happen on a background thread so a slow disk never adds to request latency.
+ *
+ * Entry format:
+ *   SLOW <time> client=<id> board=<name> total_us=<n> parse_us=<n> lock_wait_us=<n> execute_us=<n>
+ *        write_us=<n> results=<n> notes=<n> command=<command text, truncated>
+ */
+public class SlowRequestLog {
+    private static final int MAX_COMMAND_LENGTH = 200;
+    private static final int ROLLED_FILES = 3; // <file>.1 ... <file>.3 are kept.
+
+    private final long thresholdNanos;
+    private final String[] ring;
+    private int next; // Ring slot for the next entry.
+    private long recorded; // Total slow requests since start.
+
+    private final Path file;
+    private final long maxFileBytes;
+    private final ExecutorService writer; // null when file logging is disabled.
+
+    /**
+     * Creates a new SlowRequestLog.
+     *
+     * @param thresholdMillis Requests taking at least this long are logged.
+     * @param capacity Number of entries kept in memory.
+     * @param file Log file, or null to keep entries in memory only.
+     * @param maxFileBytes Size at which the log file is rolled over.
+     */
+    public SlowRequestLog(long thresholdMillis, int capacity, Path file, long maxFileBytes) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.ring = new String[capacity];
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+        this.writer = file == null ? null : Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "slow-request-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    /**
+     * Logs a request if it was slow. Fast requests return after a single comparison.
+     *
+     * @param clientId Client that sent the request.
+     * @param board Board the request ran against.
+     * @param command Command text.
+     * @param totalNanos Time from receiving the command to writing the response.
+     * @param timing Board lock timings of the request.
+     * @param writeNanos Time spent writing the response.
+     */
+    public void record(int clientId, String board, String command, long totalNanos, OpTiming timing, long writeNanos) {
+        if (totalNanos < thresholdNanos) {
+            return;
+        }
+
+        long parseNanos = Math.max(0, totalNanos - timing.getLockWaitNanos() - timing.getHoldNanos() - writeNanos);
+        String text = command.length() > MAX_COMMAND_LENGTH ? command.substring(0, MAX_COMMAND_LENGTH) + "..." : command;
+        String entry = "SLOW " + Instant.now()
+                + " client=" + clientId
+                + " board=" + board
+                + " total_us=" + totalNanos / 1000
+                + " parse_us=" + parseNanos / 1000
+                + " lock_wait_us=" + timing.getLockWaitNanos() / 1000
+                + " execute_us=" + timing.getHoldNanos() / 1000
+                + " write_us=" + writeNanos / 1000
+                + " results=" + timing.getResultSize()
+                + " notes=" + timing.getBoardNotes()
+                + " command=" + text;
+
+        synchronized (this) {
+            ring[next] = entry;
+            next = (next + 1) % ring.length;
+            recorded++;
+        }
+
+        if (writer != null) {
+            writer.execute(() -> append(entry));
+        }
+    }
+
+    /**
+     * Gets the most recent slow requests, newest first.
+     *
+     * @param limit Maximum number of entries.
+     * @return Entry lines.
+     */
+    public synchronized List<String> getRecent(int limit) {
+        List<String> result = new ArrayList<>();
+        for (int i = 1; i <= ring.length && result.size() < limit; i++) {
+            String entry = ring[(next - i + ring.length) % ring.length];
+            if (entry == null) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    public synchronized long getRecorded() {
+        return recorded;
+    }
+
+    /**
+     * Appends an entry to the log file, rolling it over first if it is full. Runs on the writer thread.
+     */
+    private void append(String entry) {
+        try {
+            if (Files.exists(file) && Files.size(file) >= maxFileBytes) {
+                for (int i = ROLLED_FILES - 1; i >= 1; i--) {
+                    Path older = Paths.get(file + "." + i);
+                    if (Files.exists(older)) {
+                        Files.move(older, Paths.get(file + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                Files.move(file, Paths.get(file + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.write(file, Collections.singletonList(entry), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("[Slow Log] Error writing " + file + ": " + e.getMessage() + ".");
+        }
+    }
+}
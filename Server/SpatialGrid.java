@@ -0,0 +1,357 @@
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * SpatialGrid - Uniform grid index over note positions, for rectangle and nearest-note queries
+ * (GET region=, GET NEAREST).
+ *
+ * The board is divided into cells of one note size (enlarged on very large boards so the grid stays
+ * under MAX_CELLS), and each note is filed under the cell holding its upper-left corner. All notes
+ * have the same size, so the notes intersecting a rectangle are exactly those whose corner lies in the
+ * rectangle grown by one note size up and to the left, and a query only visits the cells covering that
+ * area instead of every note. Each cell keeps (id, x, y) triples, so candidates are checked without
+ * touching the note store.
+ *
+ * Not thread-safe: BoardState only uses it while holding its lock.
+ */
+public class SpatialGrid {
+    private static final long MAX_CELLS = 1 << 20;
+    private static final int INITIAL_CELL_NOTES = 4;
+
+    // Estimated heap cost of one note: its (id, x, y) triple plus, on average, the spare room a
+    // cell array keeps after doubling.
+    public static final long NOTE_BYTES = 16;
+
+    private final int width;
+    private final int height;
+    private final int noteWidth;
+    private final int noteHeight;
+    private final int cellWidth;
+    private final int cellHeight;
+    private final int columns;
+    private final int rows;
+
+    private int[][] cells; // Row-major; (id, x, y) triples in ascending ID order, null while empty.
+    private int[] counts; // Notes per cell.
+    private int size;
+
+    /**
+     * Creates a new, empty SpatialGrid.
+     *
+     * @param width Board width.
+     * @param height Board height.
+     * @param noteWidth Width of all notes.
+     * @param noteHeight Height of all notes.
+     */
+    public SpatialGrid(int width, int height, int noteWidth, int noteHeight) {
+        this.width = width;
+        this.height = height;
+        this.noteWidth = noteWidth;
+        this.noteHeight = noteHeight;
+
+        int cw = Math.max(1, noteWidth);
+        int ch = Math.max(1, noteHeight);
+        while ((long) ceilDiv(width, cw) * ceilDiv(height, ch) > MAX_CELLS) {
+            cw *= 2;
+            ch *= 2;
+        }
+        this.cellWidth = cw;
+        this.cellHeight = ch;
+        this.columns = Math.max(1, ceilDiv(width, cw));
+        this.rows = Math.max(1, ceilDiv(height, ch));
+        clear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the estimated memory held by the grid's notes, for the board's memory budget. The cell
+     * table itself (8 bytes per cell, at most 8 MB) is fixed when the board is created and is not
+     * counted, as no eviction could reduce it.
+     *
+     * @return Estimated bytes.
+     */
+    public long footprint() {
+        return NOTE_BYTES * size;
+    }
+
+    /**
+     * Files a note under the cell holding its upper-left corner.
+     *
+     * @param id Note ID, greater than every ID added before.
+     * @param x X-coordinate of upper-left corner.
+     * @param y Y-coordinate of upper-left corner.
+     */
+    public void add(int id, int x, int y) {
+        int cell = cellOf(x, y);
+        int[] triples = cells[cell];
+        int count = counts[cell];
+        if (triples == null) {
+            triples = cells[cell] = new int[INITIAL_CELL_NOTES * 3];
+        } else if (count * 3 == triples.length) {
+            triples = cells[cell] = Arrays.copyOf(triples, triples.length * 2);
+        }
+        triples[count * 3] = id;
+        triples[count * 3 + 1] = x;
+        triples[count * 3 + 2] = y;
+        counts[cell] = count + 1;
+        size++;
+    }
+
+    /**
+     * Removes a note.
+     *
+     * @param id Note ID.
+     * @param x X-coordinate of upper-left corner.
+     * @param y Y-coordinate of upper-left corner.
+     * @return true if the note was in the grid.
+     */
+    public boolean remove(int id, int x, int y) {
+        int cell = cellOf(x, y);
+        int[] triples = cells[cell];
+        int count = counts[cell];
+        for (int i = 0; i < count; i++) {
+            if (triples[i * 3] == id) {
+                System.arraycopy(triples, (i + 1) * 3, triples, i * 3, (count - i - 1) * 3);
+                removed(cell, count - 1);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes every note.
+     */
+    public void clear() {
+        cells = new int[columns * rows][];
+        counts = new int[columns * rows];
+        size = 0;
+    }
+
+    /**
+     * Removes every note whose ID fails a test, in one pass over the grid.
+     *
+     * @param keep Test for the IDs to keep.
+     */
+    public void retainAll(IntPredicate keep) {
+        for (int cell = 0; cell < cells.length; cell++) {
+            int[] triples = cells[cell];
+            int count = counts[cell];
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (keep.test(triples[i * 3])) {
+                    if (kept != i) {
+                        System.arraycopy(triples, i * 3, triples, kept * 3, 3);
+                    }
+                    kept++;
+                }
+            }
+            size -= count - kept;
+            if (kept != count) {
+                removed(cell, kept);
+            }
+        }
+    }
+
+    /**
+     * Gets the IDs of the notes intersecting a rectangle.
+     *
+     * @param x1 Left edge (inclusive).
+     * @param y1 Top edge (inclusive).
+     * @param x2 Right edge (inclusive).
+     * @param y2 Bottom edge (inclusive).
+     * @return Matching IDs in ascending order, possibly empty.
+     */
+    public int[] query(int x1, int y1, int x2, int y2) {
+        // Corners of the notes that reach into the rectangle.
+        int left = Math.max(0, x1 - noteWidth + 1);
+        int top = Math.max(0, y1 - noteHeight + 1);
+        int right = Math.min(width - 1, x2);
+        int bottom = Math.min(height - 1, y2);
+        if (left > right || top > bottom) {
+            return new int[0];
+        }
+
+        int[] result = new int[16];
+        int found = 0;
+        boolean ordered = true;
+        for (int row = top / cellHeight; row <= bottom / cellHeight; row++) {
+            for (int column = left / cellWidth; column <= right / cellWidth; column++) {
+                int cell = row * columns + column;
+                int[] triples = cells[cell];
+                int count = counts[cell];
+                for (int i = 0; i < count; i++) {
+                    int x = triples[i * 3 + 1];
+                    int y = triples[i * 3 + 2];
+                    if (x < left || x > right || y < top || y > bottom) {
+                        continue;
+                    }
+                    if (found == result.length) {
+                        result = Arrays.copyOf(result, found * 2);
+                    }
+                    int id = triples[i * 3];
+                    ordered &= found == 0 || result[found - 1] < id;
+                    result[found++] = id;
+                }
+            }
+        }
+        result = Arrays.copyOf(result, found);
+        if (!ordered) {
+            Arrays.sort(result);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the IDs of the notes nearest to a point, by an expanding search over rings of cells
+     * around the point's cell. Distance is the straight-line distance from the point to the nearest
+     * part of a note, so every note containing the point is at distance 0; ties go to the lower ID.
+     * The search stops once no cell in the next ring can hold a note closer than the k-th found, so
+     * its cost depends on the density of notes around the point rather than on the board's size.
+     *
+     * @param px X-coordinate on the board.
+     * @param py Y-coordinate on the board.
+     * @param k Maximum number of notes to return.
+     * @param accept Test a note must pass to be returned, or null to accept every note.
+     * @return Up to k IDs, nearest first.
+     */
+    public int[] nearest(int px, int py, int k, IntPredicate accept) {
+        int capacity = Math.min(k, size);
+        if (capacity <= 0) {
+            return new int[0];
+        }
+        long[] heapDistances = new long[capacity]; // Max-heap of the best (distance, ID) pairs so far.
+        int[] heapIds = new int[capacity];
+        int found = 0;
+
+        int pointColumn = Math.min(px / cellWidth, columns - 1);
+        int pointRow = Math.min(py / cellHeight, rows - 1);
+        int lastRing = Math.max(Math.max(pointColumn, columns - 1 - pointColumn), Math.max(pointRow, rows - 1 - pointRow));
+        for (int ring = 0; ring <= lastRing; ring++) {
+            if (found == capacity && ringDistance(ring) > heapDistances[0]) {
+                break;
+            }
+            for (int row = Math.max(0, pointRow - ring); row <= Math.min(rows - 1, pointRow + ring); row++) {
+                boolean edgeRow = row == pointRow - ring || row == pointRow + ring;
+                int step = edgeRow ? 1 : 2 * ring; // Inner rows of the ring only have its two side cells.
+                for (int column = pointColumn - ring; column <= pointColumn + ring; column += step) {
+                    if (column < 0 || column >= columns) {
+                        continue;
+                    }
+                    int cell = row * columns + column;
+                    int[] triples = cells[cell];
+                    int count = counts[cell];
+                    for (int i = 0; i < count; i++) {
+                        int id = triples[i * 3];
+                        long distance = squaredDistance(px, py, triples[i * 3 + 1], triples[i * 3 + 2]);
+                        if (found == capacity && !closer(distance, id, heapDistances[0], heapIds[0])) {
+                            continue;
+                        }
+                        if (accept != null && !accept.test(id)) {
+                            continue;
+                        }
+                        if (found < capacity) {
+                            siftUp(heapDistances, heapIds, found++, distance, id);
+                        } else {
+                            siftDown(heapDistances, heapIds, found, distance, id);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Empty the max-heap from the back, which leaves the nearest note first.
+        int[] result = new int[found];
+        for (int n = found; n > 0; n--) {
+            result[n - 1] = heapIds[0];
+            if (n > 1) {
+                siftDown(heapDistances, heapIds, n - 1, heapDistances[n - 1], heapIds[n - 1]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets a lower bound on the squared distance from the point to any note filed in a ring of cells.
+     * A note reaches at most one note size, and so at most one cell, past its own cell towards the point.
+     */
+    private long ringDistance(int ring) {
+        if (ring < 2) {
+            return 0;
+        }
+        long gap = (long) (ring - 2) * Math.min(cellWidth, cellHeight) + 1;
+        return gap * gap;
+    }
+
+    private long squaredDistance(int px, int py, int x, int y) {
+        long dx = px < x ? x - px : Math.max(0, px - (x + noteWidth - 1));
+        long dy = py < y ? y - py : Math.max(0, py - (y + noteHeight - 1));
+        return dx * dx + dy * dy;
+    }
+
+    private static boolean closer(long distance, int id, long otherDistance, int otherId) {
+        return distance < otherDistance || (distance == otherDistance && id < otherId);
+    }
+
+    private static void siftUp(long[] distances, int[] ids, int index, long distance, int id) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!closer(distances[parent], ids[parent], distance, id)) {
+                break;
+            }
+            distances[index] = distances[parent];
+            ids[index] = ids[parent];
+            index = parent;
+        }
+        distances[index] = distance;
+        ids[index] = id;
+    }
+
+    /**
+     * Replaces the farthest entry of a heap of the given size with a new one.
+     */
+    private static void siftDown(long[] distances, int[] ids, int size, long distance, int id) {
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && closer(distances[child], ids[child], distances[child + 1], ids[child + 1])) {
+                child++;
+            }
+            if (!closer(distance, id, distances[child], ids[child])) {
+                break;
+            }
+            distances[index] = distances[child];
+            ids[index] = ids[child];
+            index = child;
+        }
+        distances[index] = distance;
+        ids[index] = id;
+    }
+
+    /**
+     * Updates a cell's count after removals, releasing its array once it is empty.
+     */
+    private void removed(int cell, int count) {
+        counts[cell] = count;
+        if (count == 0) {
+            cells[cell] = null;
+        }
+    }
+
+    private int cellOf(int x, int y) {
+        int column = Math.min(Math.max(x, 0) / cellWidth, columns - 1);
+        int row = Math.min(Math.max(y, 0) / cellHeight, rows - 1);
+        return row * columns + column;
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
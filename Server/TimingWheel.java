@@ -0,0 +1,147 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimingWheel - A hashed timing wheel for large numbers of coarse timeouts.
+ *
+ * The wheel is a ring of buckets, each covering one tick. A timeout is hashed into the bucket of
+ * its deadline tick together with the number of full rotations still to wait, so scheduling and
+ * cancelling are O(1) and one thread serves every timeout, however many connections there are.
+ * Timeouts fire up to one tick late, which is fine for idle and read timeouts measured in seconds.
+ *
+ * Any thread may schedule or cancel. New timeouts are handed to the wheel thread through a
+ * lock-free queue and only the wheel thread touches the buckets, so the buckets need no locking.
+ * Tasks run on the wheel thread and must be short.
+ */
+public class TimingWheel {
+
+    /**
+     * A scheduled task. Cancelled timeouts are dropped the next time the wheel reaches their bucket.
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+        private Timeout next; // Next timeout in the same bucket, only touched by the wheel thread.
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    private final Timeout[] buckets; // Head of each bucket's list.
+    private final ConcurrentLinkedQueue<Timeout> incoming;
+    private final long startNanos;
+
+    /**
+     * Creates and starts a new TimingWheel on its own daemon thread.
+     *
+     * @param tickMillis Resolution of the wheel.
+     * @param wheelSize Number of buckets, rounded up to a power of two.
+     */
+    public TimingWheel(long tickMillis, int wheelSize) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.mask = size - 1;
+        this.buckets = new Timeout[size];
+        this.incoming = new ConcurrentLinkedQueue<>();
+        this.startNanos = System.nanoTime();
+
+        Thread thread = new Thread(this::runWheel, "timing-wheel");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Schedules a task to run once after a delay.
+     *
+     * @param task Task to run on the wheel thread.
+     * @param delayMillis Delay before running the task.
+     * @return Handle that can cancel the task.
+     */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        long deadline = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        // Round up, so a task never runs before its delay has elapsed.
+        Timeout timeout = new Timeout(task, (deadline + tickNanos - 1) / tickNanos);
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    private void runWheel() {
+        long tick = 0;
+        while (true) {
+            tick++;
+            long sleepNanos = startNanos + tick * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            transferIncoming(tick);
+            expireBucket(tick);
+        }
+    }
+
+    /**
+     * Hashes newly scheduled timeouts into their buckets.
+     */
+    private void transferIncoming(long tick) {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            // Timeouts already due go into the current bucket and fire this tick.
+            long target = Math.max(timeout.deadlineTick, tick);
+            timeout.remainingRounds = (target - tick) / buckets.length;
+            int index = (int) (target & mask);
+            timeout.next = buckets[index];
+            buckets[index] = timeout;
+        }
+    }
+
+    /**
+     * Runs the due timeouts in the current bucket and keeps the ones due in a later rotation.
+     */
+    private void expireBucket(long tick) {
+        int index = (int) (tick & mask);
+        Timeout timeout = buckets[index];
+        buckets[index] = null;
+
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.next = null;
+            if (timeout.cancelled) {
+                timeout = next;
+                continue;
+            }
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                timeout.next = buckets[index];
+                buckets[index] = timeout;
+            } else {
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Timer task failed: " + e.getMessage() + ".");
+                }
+            }
+            timeout = next;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * TokenBucket - A token bucket refilled continuously at a fixed rate.
+ *
+ * The bucket holds at most `capacity` tokens (the burst size) and gains `rate` tokens per second.
+ * Requests take tokens up front with tryAcquire. Costs only known after the fact, such as a
+ * GET's result size, are taken with charge, which may leave the bucket in debt so that later
+ * requests wait until it has refilled.
+ */
+public class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill; // nanoTime of the last refill.
+
+    /**
+     * Creates a new, full TokenBucket.
+     *
+     * @param rate Tokens added per second.
+     * @param capacity Maximum tokens held.
+     */
+    public TokenBucket(double rate, double capacity) {
+        this.capacity = capacity;
+        this.tokensPerNano = rate / 1e9;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes tokens if enough are available.
+     *
+     * @param cost Tokens to take.
+     * @return true if the tokens were taken.
+     */
+    public synchronized boolean tryAcquire(double cost) {
+        refill();
+        if (tokens < cost) {
+            return false;
+        }
+        tokens -= cost;
+        return true;
+    }
+
+    /**
+     * Takes tokens unconditionally, possibly leaving the bucket in debt.
+     *
+     * @param cost Tokens to take.
+     */
+    public synchronized void charge(double cost) {
+        refill();
+        tokens -= cost;
+    }
+
+    /**
+     * Returns tokens taken by a request that was then rejected elsewhere.
+     *
+     * @param cost Tokens to return.
+     */
+    public synchronized void refund(double cost) {
+        tokens = Math.min(capacity, tokens + cost);
+    }
+
+    /**
+     * Gets the time until the given cost could be acquired.
+     *
+     * @param cost Tokens wanted.
+     * @return Nanoseconds to wait, 0 if available now.
+     */
+    public synchronized long nanosUntil(double cost) {
+        refill();
+        return tokens >= cost ? 0 : (long) Math.ceil((cost - tokens) / tokensPerNano);
+    }
+
+    /**
+     * Checks whether the bucket has fully refilled, meaning it no longer remembers any usage.
+     */
+    public synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
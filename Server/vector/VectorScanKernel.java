@@ -0,0 +1,79 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorScanKernel - ScanKernel on the incubating Vector API (jdk.incubator.vector).
+ *
+ * Compares a whole register of slots per step, using the widest species the CPU supports (8 ints
+ * and 16 shorts per step with AVX2), then walks the set bits of the match mask to write out the
+ * matching slots. The remainder of a block that does not fill a register is handled with a scalar loop.
+ *
+ * Kept apart from the other server sources because it needs the incubator module to compile and run:
+ *   javac --add-modules jdk.incubator.vector -cp . -d . vector/VectorScanKernel.java
+ *   java --add-modules jdk.incubator.vector BulletinBoardServer ...
+ * ScanKernel.load finds it by name, and falls back to ScalarScanKernel when it is missing.
+ */
+public class VectorScanKernel implements ScanKernel {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+
+    @Override
+    public String getName() {
+        return "vector (" + INTS.vectorBitSize() + "-bit)";
+    }
+
+    @Override
+    public int selectContaining(int[] xs, int[] ys, int from, int to, int px, int py, int width, int height, int[] out) {
+        int count = 0;
+        int slot = from;
+        int upper = from + INTS.loopBound(to - from);
+        IntVector pxs = IntVector.broadcast(INTS, px);
+        IntVector pys = IntVector.broadcast(INTS, py);
+        for (; slot < upper; slot += INTS.length()) {
+            // Contained when 0 <= px - x < width and 0 <= py - y < height; coordinates are not negative, so nothing overflows.
+            IntVector dx = pxs.sub(IntVector.fromArray(INTS, xs, slot));
+            IntVector dy = pys.sub(IntVector.fromArray(INTS, ys, slot));
+            VectorMask<Integer> matches = dx.compare(VectorOperators.GE, 0)
+                    .and(dx.compare(VectorOperators.LT, width))
+                    .and(dy.compare(VectorOperators.GE, 0))
+                    .and(dy.compare(VectorOperators.LT, height));
+            count = writeMatches(matches.toLong(), slot, out, count);
+        }
+        for (; slot < to; slot++) {
+            int dx = px - xs[slot];
+            int dy = py - ys[slot];
+            if (dx >= 0 && dx < width && dy >= 0 && dy < height) {
+                out[count++] = slot;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int selectColour(short[] colours, int from, int to, short colour, int[] out) {
+        int count = 0;
+        int slot = from;
+        int upper = from + SHORTS.loopBound(to - from);
+        for (; slot < upper; slot += SHORTS.length()) {
+            VectorMask<Short> matches = ShortVector.fromArray(SHORTS, colours, slot).compare(VectorOperators.EQ, colour);
+            count = writeMatches(matches.toLong(), slot, out, count);
+        }
+        for (; slot < to; slot++) {
+            if (colours[slot] == colour) {
+                out[count++] = slot;
+            }
+        }
+        return count;
+    }
+
+    private static int writeMatches(long bits, int base, int[] out, int count) {
+        while (bits != 0) {
+            out[count++] = base + Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+        }
+        return count;
+    }
+}